@@ -0,0 +1,27 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.item.service.utils.ItemServiceUtils;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommentBenchmark {
+    private ItemServiceUtils itemServiceUtils;
+
+    @Setup(Level.Trial)
+    public void setUp(RentalHistoryState history) {
+        itemServiceUtils = history.bean(ItemServiceUtils.class);
+    }
+
+    // the eligibility check behind addComment, it should not depend on the booker's history size
+    @Benchmark
+    public void checkIfUserRentedItem(RentalHistoryState history) {
+        itemServiceUtils.checkIfUserRentedItem(history.bookerId, history.rentedItemId);
+    }
+}
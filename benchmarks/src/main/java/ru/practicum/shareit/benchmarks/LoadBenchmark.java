@@ -0,0 +1,107 @@
+package ru.practicum.shareit.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+// closed-loop load against a running gateway or server: every client sends its next request once the previous
+// one has been answered. Run it once with platform threads and once with SHAREIT_VIRTUAL_THREADS=true.
+//
+// java -cp benchmarks.jar ru.practicum.shareit.benchmarks.LoadBenchmark <url> [userId] [concurrency,...] [seconds]
+public class LoadBenchmark {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: LoadBenchmark <url> [userId] [concurrency,...] [seconds]");
+            System.exit(1);
+        }
+        URI uri = URI.create(args[0]);
+        String userId = args.length > 1 ? args[1] : "1";
+        int[] levels = Arrays.stream((args.length > 2 ? args[2] : "1000,5000,10000").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        Duration duration = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 30);
+
+        for (int concurrency : levels) {
+            System.out.println(run(uri, userId, concurrency, duration));
+        }
+    }
+
+    private static String run(URI uri, String userId, int concurrency, Duration duration) {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header(USER_ID_HEADER, userId)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        List<Client> clients = new ArrayList<>(concurrency);
+        List<CompletableFuture<Void>> loops = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Client loadClient = new Client();
+            clients.add(loadClient);
+            loops.add(loadClient.loop(client, request, deadline, errors));
+        }
+        CompletableFuture.allOf(loops.toArray(new CompletableFuture[0])).join();
+
+        long[] latencies = clients.stream()
+                .flatMapToLong(loadClient -> Arrays.stream(loadClient.latencies, 0, loadClient.count))
+                .sorted()
+                .toArray();
+        double seconds = duration.toMillis() / 1000.0;
+        return String.format("{\"url\":\"%s\",\"concurrency\":%d,\"requests\":%d,\"errors\":%d,"
+                        + "\"throughput\":%.1f,\"p50Ms\":%.2f,\"p95Ms\":%.2f,\"p99Ms\":%.2f,\"maxMs\":%.2f}",
+                uri, concurrency, latencies.length, errors.get(), latencies.length / seconds,
+                percentile(latencies, 0.5), percentile(latencies, 0.95), percentile(latencies, 0.99),
+                percentile(latencies, 1.0));
+    }
+
+    private static double percentile(long[] sortedNanos, double quantile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private static class Client {
+        private long[] latencies = new long[256];
+        private int count;
+
+        private CompletableFuture<Void> loop(HttpClient client, HttpRequest request, long deadline, AtomicLong errors) {
+            if (System.nanoTime() >= deadline) {
+                return CompletableFuture.completedFuture(null);
+            }
+            long start = System.nanoTime();
+            return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, failure) -> {
+                        if (failure != null || response.statusCode() >= 500) {
+                            errors.incrementAndGet();
+                        } else {
+                            record(System.nanoTime() - start);
+                        }
+                        return null;
+                    })
+                    .thenCompose(ignored -> loop(client, request, deadline, errors));
+        }
+
+        private void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+}
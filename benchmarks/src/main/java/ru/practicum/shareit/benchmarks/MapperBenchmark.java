@@ -0,0 +1,49 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapperBenchmark {
+    private Item item;
+    private Booking booking;
+
+    @Setup
+    public void setUp() {
+        User owner = new User(1, "owner", "owner@shareit.ru", 0);
+        User booker = new User(2, "booker", "booker@shareit.ru", 0);
+        item = new Item(1, "Drill", "Strong drill", true, owner, 0, 0);
+        booking = new Booking();
+        booking.setId(1);
+        booking.setStart(LocalDateTime.now().plusDays(1));
+        booking.setEnd(LocalDateTime.now().plusDays(2));
+        booking.setBooker(booker);
+        booking.setItem(item);
+        booking.setStatus(Status.APPROVED);
+    }
+
+    @Benchmark
+    public BookingDto bookingToDto() {
+        return BookingMapper.convertToDto(booking);
+    }
+
+    @Benchmark
+    public ItemDto itemToDto() {
+        return ItemMapper.convertToDto(item);
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// one booker with a history of the given size, spread over the items of one owner. The single finished approved
+// booking of the rented item sits in the middle of the history, so neither end of it gives the answer away
+@State(Scope.Benchmark)
+public class RentalHistoryState {
+    private static final int ITEMS = 100;
+
+    @Param({"10", "1000", "10000"})
+    public int bookings;
+
+    ConfigurableApplicationContext context;
+    long bookerId;
+    long rentedItemId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("ci")
+                .properties("spring.jpa.show-sql=false",
+                        "logging.level.root=warn")
+                .run();
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void seed() {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<User> users = bean(UserRepository.class).saveAll(List.of(
+                new User(0, "owner", "owner@shareit.ru", 0),
+                new User(0, "booker", "booker@shareit.ru", 0)));
+        User owner = users.get(0);
+        User booker = users.get(1);
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            String name = ServerState.NAMES[random.nextInt(ServerState.NAMES.length)];
+            items.add(new Item(0, name, name + " number " + i, true, owner, 0, 0));
+        }
+        items = bean(ItemRepository.class).saveAll(items);
+        Item rentedItem = items.get(0);
+
+        // everything else is either another item or the rented one waiting or rejected
+        List<Booking> history = new ArrayList<>(bookings);
+        for (int i = 0; i < bookings; i++) {
+            Booking booking = new Booking();
+            booking.setBooker(booker);
+            booking.setStart(now.plusDays(random.nextInt(60) - 30));
+            booking.setEnd(booking.getStart().plusDays(1 + random.nextInt(5)));
+            if (i == bookings / 2) {
+                booking.setItem(rentedItem);
+                booking.setStatus(Status.APPROVED);
+                booking.setStart(now.minusDays(2));
+                booking.setEnd(now.minusDays(1));
+            } else if (random.nextInt(10) == 0) {
+                booking.setItem(rentedItem);
+                booking.setStatus(random.nextBoolean() ? Status.WAITING : Status.REJECTED);
+            } else {
+                booking.setItem(items.get(1 + random.nextInt(ITEMS - 1)));
+                booking.setStatus(Status.values()[random.nextInt(Status.values().length)]);
+            }
+            history.add(booking);
+        }
+        bean(BookingRepository.class).saveAll(history);
+
+        bookerId = booker.getId();
+        rentedItemId = rentedItem.getId();
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+@State(Scope.Benchmark)
+public class ServerState {
+    static final String[] NAMES = {"Drill", "Saw", "Ladder", "Hammer", "Tent", "Bicycle", "Projector", "Kayak"};
+
+    @Param("100")
+    public int users;
+    @Param("10")
+    public int itemsPerUser;
+    @Param("20")
+    public int bookingsPerUser;
+    @Param("database")
+    public String searchEngine;
+
+    ConfigurableApplicationContext context;
+    long ownerId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("ci")
+                .properties("shareit.search.engine=" + searchEngine,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=warn")
+                .run();
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void seed() {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<User> savedUsers = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            savedUsers.add(new User(0, "user" + i, "user" + i + "@shareit.ru", 0));
+        }
+        savedUsers = bean(UserRepository.class).saveAll(savedUsers);
+
+        List<Item> items = new ArrayList<>();
+        for (User owner : savedUsers) {
+            for (int i = 0; i < itemsPerUser; i++) {
+                String name = NAMES[random.nextInt(NAMES.length)];
+                items.add(new Item(0, name, name + " number " + i + " of " + owner.getName(), random.nextBoolean(),
+                        owner, 0, 0));
+            }
+        }
+        items = bean(ItemRepository.class).saveAll(items);
+        ItemSearchEngine engine = bean(ItemSearchEngine.class);
+        items.forEach(engine::onItemSaved);
+
+        List<Booking> bookings = new ArrayList<>();
+        for (User booker : savedUsers) {
+            for (int i = 0; i < bookingsPerUser; i++) {
+                Item item = items.get(random.nextInt(items.size()));
+                if (item.getOwner().getId() == booker.getId()) {
+                    continue;
+                }
+                Booking booking = new Booking();
+                booking.setBooker(booker);
+                booking.setItem(item);
+                booking.setStart(now.plusDays(random.nextInt(60) - 30));
+                booking.setEnd(booking.getStart().plusDays(1 + random.nextInt(5)));
+                booking.setStatus(Status.values()[random.nextInt(Status.values().length)]);
+                bookings.add(booking);
+            }
+        }
+        bean(BookingRepository.class).saveAll(bookings);
+
+        ownerId = savedUsers.get(0).getId();
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceBenchmark {
+    private ItemService itemService;
+    private BookingService bookingService;
+
+    @Setup(Level.Trial)
+    public void setUp(ServerState server) {
+        itemService = server.bean(ItemService.class);
+        bookingService = server.bean(BookingService.class);
+    }
+
+    @Benchmark
+    public List<ItemDto> getItemsByUserId(ServerState server) {
+        return itemService.getItemsByUserId(server.ownerId);
+    }
+
+    @Benchmark
+    public Slice<BookingDto> getUsersItemsBookingsPagination(ServerState server) {
+        return bookingService.getUsersItemsBookingsPagination(server.ownerId, "ALL", 0, 20);
+    }
+
+    @Benchmark
+    public List<ItemDto> searchInDescription() {
+        return itemService.searchInDescription("drill");
+    }
+}
@@ -0,0 +1,172 @@
+package ru.practicum.shareit.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.client.RestTemplateServerTransport;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// what the gateway does with a /bookings/owner page between the server's socket and the client's socket, through
+// the real RestTemplateServerTransport with shareit-server.client.passthrough on and off. The server is an in-memory
+// request factory, so no socket time hides the difference. Run with -prof gc to see the allocation per op,
+// end to end numbers come from LoadBenchmark against a running gateway
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RelayBenchmark {
+    @Param({"10", "100", "1000"})
+    private int bookings;
+    @Param({"true", "false"})
+    private boolean passthrough;
+
+    private ObjectMapper objectMapper;
+    private RestTemplateServerTransport transport;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        // the page as the server writes it, built from the gateway's copies of its dtos
+        UserDto booker = new UserDto();
+        booker.setId(2);
+        booker.setName("booker");
+        booker.setEmail("booker@shareit.ru");
+        List<BookingDto> page = new ArrayList<>(bookings);
+        for (int i = 0; i < bookings; i++) {
+            ItemDto item = new ItemDto(i, "Item " + i, "Description of item number " + i, true, null, null, null, 0);
+            page.add(BookingDto.builder()
+                    .id(i)
+                    .itemId(i)
+                    .start(LocalDateTime.now().plusDays(i))
+                    .end(LocalDateTime.now().plusDays(i + 1))
+                    .item(item)
+                    .booker(booker)
+                    .status("APPROVED")
+                    .build());
+        }
+        ClientHttpRequestFactory server = new InMemoryServer(objectMapper.writeValueAsBytes(page));
+        transport = new RestTemplateServerTransport(new RestTemplateBuilder()
+                .uriTemplateHandler(new DefaultUriBuilderFactory("http://shareit-server/bookings"))
+                .requestFactory(() -> server)
+                .build(), passthrough, server);
+    }
+
+    // the body written the way the gateway's message converters write it: bytes as they are, anything else as json
+    @Benchmark
+    public byte[] relay() throws IOException {
+        ResponseEntity<Object> response = transport.exchange(HttpMethod.GET, "/owner", 1L, null, null).block();
+        ByteArrayOutputStream clientResponse = new ByteArrayOutputStream();
+        Object body = response.getBody();
+        if (body instanceof byte[]) {
+            clientResponse.write((byte[]) body);
+        } else {
+            objectMapper.writeValue(clientResponse, body);
+        }
+        return clientResponse.toByteArray();
+    }
+
+    private static class InMemoryServer implements ClientHttpRequestFactory {
+        private final byte[] answer;
+
+        private InMemoryServer(byte[] answer) {
+            this.answer = answer;
+        }
+
+        @Override
+        public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+            return new AbstractClientHttpRequest() {
+                private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+                @Override
+                public String getMethodValue() {
+                    return httpMethod.name();
+                }
+
+                @Override
+                public URI getURI() {
+                    return uri;
+                }
+
+                @Override
+                protected OutputStream getBodyInternal(HttpHeaders headers) {
+                    return body;
+                }
+
+                @Override
+                protected ClientHttpResponse executeInternal(HttpHeaders headers) {
+                    return new InMemoryResponse(answer);
+                }
+            };
+        }
+    }
+
+    private static class InMemoryResponse implements ClientHttpResponse {
+        private final byte[] answer;
+        private final HttpHeaders headers = new HttpHeaders();
+
+        private InMemoryResponse(byte[] answer) {
+            this.answer = answer;
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setContentLength(answer.length);
+        }
+
+        @Override
+        public HttpStatus getStatusCode() {
+            return HttpStatus.OK;
+        }
+
+        @Override
+        public int getRawStatusCode() {
+            return HttpStatus.OK.value();
+        }
+
+        @Override
+        public String getStatusText() {
+            return HttpStatus.OK.getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(answer);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -1,46 +1,45 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChange;
 import ru.practicum.shareit.booking.dto.RequestState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerTransportFactory;
 import ru.practicum.shareit.exception.model.UnknownStateException;
 
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
-    @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(ServerTransportFactory transports, ResponseCache responseCache) {
+        super(API_PREFIX, transports, responseCache);
     }
 
-    public ResponseEntity<Object> createBooking(long userId, BookingDto bookingDto) {
+    public Mono<ResponseEntity<Object>> createBooking(long userId, BookingDto bookingDto) {
         return post("", userId, bookingDto);
     }
 
-    public ResponseEntity<Object> setStatus(long userId, long bookingId, Boolean approved) {
+    public Mono<ResponseEntity<Object>> setStatus(long userId, long bookingId, Boolean approved) {
         return patch("/" + bookingId + "?approved=" + approved, userId);
     }
 
-    public ResponseEntity<Object> getBookingInfo(long userId, long bookingId) {
+    public Mono<ResponseEntity<Object>> setStatuses(long userId, List<BookingStatusChange> changes) {
+        return patch("/bulk", userId, changes);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookingInfo(long userId, long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getUsersBookings(long userId, String state) {
+    public Mono<ResponseEntity<Object>> getUsersBookings(long userId, String state) {
         RequestState requestState;
         try {
             requestState = RequestState.valueOf(state);
@@ -50,7 +49,7 @@ public class BookingClient extends BaseClient {
         return get("?state=" + requestState.name(), userId);
     }
 
-    public ResponseEntity<Object> getUsersBookingsPagination(long userId, String state, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getUsersBookingsPagination(long userId, String state, Integer from, Integer size) {
         RequestState requestState;
         try {
             requestState = RequestState.valueOf(state);
@@ -65,8 +64,23 @@ public class BookingClient extends BaseClient {
         return get("?state={state}&from={from}&size={size}", userId, parameters);
     }
 
+    public Mono<ResponseEntity<Object>> getUsersBookingsAfter(long userId, String state, String after, Integer size) {
+        RequestState requestState;
+        try {
+            requestState = RequestState.valueOf(state);
+        } catch (IllegalArgumentException e) {
+            throw new UnknownStateException("Unknown state: " + state);
+        }
+        Map<String, Object> parameters = Map.of(
+                "state", requestState.name(),
+                "after", after,
+                "size", size
+        );
+        return get("?state={state}&after={after}&size={size}", userId, parameters);
+    }
+
 
-    public ResponseEntity<Object> getUsersItemsBookings(long userId, String state) {
+    public Mono<ResponseEntity<Object>> getUsersItemsBookings(long userId, String state) {
         RequestState requestState;
         try {
             requestState = RequestState.valueOf(state);
@@ -76,7 +90,7 @@ public class BookingClient extends BaseClient {
         return get("/owner?state=" + requestState.name(), userId);
     }
 
-    public ResponseEntity<Object> getUsersItemsBookingsPagination(long userId, String state, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getUsersItemsBookingsPagination(long userId, String state, Integer from, Integer size) {
         RequestState requestState;
         try {
             requestState = RequestState.valueOf(state);
@@ -90,4 +104,28 @@ public class BookingClient extends BaseClient {
         );
         return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
     }
+
+    public Mono<ResponseEntity<Object>> getUsersItemsBookingsAfter(long userId, String state, String after, Integer size) {
+        RequestState requestState;
+        try {
+            requestState = RequestState.valueOf(state);
+        } catch (IllegalArgumentException e) {
+            throw new UnknownStateException("Unknown state: " + state);
+        }
+        Map<String, Object> parameters = Map.of(
+                "state", requestState.name(),
+                "after", after,
+                "size", size
+        );
+        return get("/owner?state={state}&after={after}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getFreePeriods(long userId, List<Long> itemIds, String start, String end) {
+        Map<String, Object> parameters = Map.of(
+                "itemId", itemIds.stream().map(String::valueOf).collect(Collectors.joining(",")),
+                "start", start,
+                "end", end
+        );
+        return get("/free?itemId={itemId}&start={start}&end={end}", userId, parameters);
+    }
 }
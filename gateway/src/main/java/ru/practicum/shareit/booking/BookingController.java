@@ -5,7 +5,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChange;
+
+import java.util.List;
 
 @RestController
 @RequestMapping(path = "/bookings")
@@ -16,36 +20,59 @@ public class BookingController {
     private final String httpHeaderUserId = "X-Sharer-User-Id";
 
     @PostMapping
-    public ResponseEntity<Object> createBooking(@RequestHeader(httpHeaderUserId) long userId,
-                                                @RequestBody BookingDto bookingDto) {
+    public Mono<ResponseEntity<Object>> createBooking(@RequestHeader(httpHeaderUserId) long userId,
+                                                      @RequestBody BookingDto bookingDto) {
         log.info("Received request to create new booking from user {}.", userId);
 
         return bookingClient.createBooking(userId, bookingDto);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> changeItemStatus(@RequestHeader(httpHeaderUserId) long userId,
-                                                   @PathVariable(value = "bookingId") long bookingId,
-                                                   @RequestParam(required = true) boolean approved) {
+    public Mono<ResponseEntity<Object>> changeItemStatus(@RequestHeader(httpHeaderUserId) long userId,
+                                                         @PathVariable(value = "bookingId") long bookingId,
+                                                         @RequestParam(required = true) boolean approved) {
         log.info("Received request from user {} to change status to {} in booking {}.", userId, approved, bookingId);
 
         return bookingClient.setStatus(userId, bookingId, approved);
     }
 
+    @PatchMapping("/bulk")
+    public Mono<ResponseEntity<Object>> changeItemStatuses(@RequestHeader(httpHeaderUserId) long userId,
+                                                           @RequestBody List<BookingStatusChange> changes) {
+        log.info("Received request from user {} to change statuses of {} bookings.", userId,
+                changes == null ? 0 : changes.size());
+
+        return bookingClient.setStatuses(userId, changes);
+    }
+
+    @GetMapping("/free")
+    public Mono<ResponseEntity<Object>> getFreePeriods(@RequestHeader(httpHeaderUserId) long userId,
+                                                       @RequestParam(value = "itemId") List<Long> itemIds,
+                                                       @RequestParam(value = "start") String start,
+                                                       @RequestParam(value = "end") String end) {
+        log.info("Received request from user {} to get free periods of items {}.", userId, itemIds);
+
+        return bookingClient.getFreePeriods(userId, itemIds, start, end);
+    }
+
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getInfoAboutBooking(@RequestHeader(httpHeaderUserId) long userId,
-                                                      @PathVariable(value = "bookingId") long bookingId) {
+    public Mono<ResponseEntity<Object>> getInfoAboutBooking(@RequestHeader(httpHeaderUserId) long userId,
+                                                            @PathVariable(value = "bookingId") long bookingId) {
         log.info("Received request to get info about booking {} from user {}.", userId, bookingId);
 
         return bookingClient.getBookingInfo(userId, bookingId);
     }
 
     @GetMapping()
-    public ResponseEntity<Object> getUsersBookings(@RequestHeader(httpHeaderUserId) long userId,
-                                                   @RequestParam(defaultValue = "ALL") String state,
-                                                   @RequestParam(value = "from", required = false) Integer from,
-                                                   @RequestParam(value = "size", required = false) Integer size) {
+    public Mono<ResponseEntity<Object>> getUsersBookings(@RequestHeader(httpHeaderUserId) long userId,
+                                                         @RequestParam(defaultValue = "ALL") String state,
+                                                         @RequestParam(value = "from", required = false) Integer from,
+                                                         @RequestParam(value = "size", required = false) Integer size,
+                                                         @RequestParam(value = "after", required = false) String after) {
         log.info("Received request to get bookings of user {}.", userId);
+        if (after != null && size != null) {
+            return bookingClient.getUsersBookingsAfter(userId, state, after, size);
+        }
         if (from != null && size != null) {
             return bookingClient.getUsersBookingsPagination(userId, state, from, size);
         }
@@ -53,11 +80,15 @@ public class BookingController {
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getUsersItemsBookings(@RequestHeader(httpHeaderUserId) long userId,
-                                                        @RequestParam(defaultValue = "ALL") String state,
-                                                        @RequestParam(value = "from", required = false) Integer from,
-                                                        @RequestParam(value = "size", required = false) Integer size) {
+    public Mono<ResponseEntity<Object>> getUsersItemsBookings(@RequestHeader(httpHeaderUserId) long userId,
+                                                              @RequestParam(defaultValue = "ALL") String state,
+                                                              @RequestParam(value = "from", required = false) Integer from,
+                                                              @RequestParam(value = "size", required = false) Integer size,
+                                                              @RequestParam(value = "after", required = false) String after) {
         log.info("Received request to get user {} items bookings.", userId);
+        if (after != null && size != null) {
+            return bookingClient.getUsersItemsBookingsAfter(userId, state, after, size);
+        }
         if (from != null && size != null) {
             return bookingClient.getUsersItemsBookingsPagination(userId, state, from, size);
         }
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.http.ResponseEntity;
+
+@Getter
+@AllArgsConstructor
+class CachedResponse {
+    private final ResponseEntity<Object> response;
+    private final String etag;
+    @Setter
+    private volatile long validatedAt;
+}
@@ -0,0 +1,122 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.netty.channel.ChannelOption;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class HttpClientConfig {
+    private static final String POOL_NAME = "shareit-server";
+
+    @Configuration
+    @ConditionalOnProperty(name = "shareit-server.client.mode", havingValue = "blocking", matchIfMissing = true)
+    static class Blocking {
+        @Bean
+        public PoolingHttpClientConnectionManager shareItServerConnectionManager(
+                @Value("${shareit-server.client.max-total}") int maxTotal,
+                @Value("${shareit-server.client.max-per-route}") int maxPerRoute,
+                @Value("${shareit-server.client.validate-after-inactivity}") Duration validateAfterInactivity) {
+            PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+            connectionManager.setMaxTotal(maxTotal);
+            connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+            connectionManager.setValidateAfterInactivity((int) validateAfterInactivity.toMillis());
+            return connectionManager;
+        }
+
+        // every client talks to the same server, so they share one pool of keep-alive connections
+        @Bean
+        public HttpComponentsClientHttpRequestFactory shareItServerRequestFactory(
+                PoolingHttpClientConnectionManager shareItServerConnectionManager,
+                @Value("${shareit-server.client.connect-timeout}") Duration connectTimeout,
+                @Value("${shareit-server.client.read-timeout}") Duration readTimeout,
+                @Value("${shareit-server.client.pool-timeout}") Duration poolTimeout,
+                @Value("${shareit-server.client.idle-timeout}") Duration idleTimeout) {
+            RequestConfig requestConfig = RequestConfig.custom()
+                    .setConnectTimeout((int) connectTimeout.toMillis())
+                    .setSocketTimeout((int) readTimeout.toMillis())
+                    .setConnectionRequestTimeout((int) poolTimeout.toMillis())
+                    .build();
+            CloseableHttpClient httpClient = HttpClients.custom()
+                    .setConnectionManager(shareItServerConnectionManager)
+                    .setDefaultRequestConfig(requestConfig)
+                    .evictExpiredConnections()
+                    .evictIdleConnections(idleTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .build();
+            return new HttpComponentsClientHttpRequestFactory(httpClient);
+        }
+
+        @Bean
+        public MeterBinder shareItServerConnectionPoolMetrics(PoolingHttpClientConnectionManager shareItServerConnectionManager) {
+            return new PoolingHttpClientConnectionManagerMetricsBinder(shareItServerConnectionManager, POOL_NAME);
+        }
+
+        @Bean
+        public ServerTransportFactory blockingServerTransports(@Value("${shareit-server.url}") String serverUrl,
+                                                               @Value("${shareit-server.client.passthrough}") boolean passthrough,
+                                                               RestTemplateBuilder builder,
+                                                               HttpComponentsClientHttpRequestFactory shareItServerRequestFactory) {
+            // same connection pool, but request bodies are written to the connection as they are read
+            HttpComponentsClientHttpRequestFactory streamingRequests =
+                    new HttpComponentsClientHttpRequestFactory(shareItServerRequestFactory.getHttpClient());
+            streamingRequests.setBufferRequestBody(false);
+            return apiPrefix -> new RestTemplateServerTransport(builder
+                    .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + apiPrefix))
+                    .requestFactory(() -> shareItServerRequestFactory)
+                    .build(), passthrough, streamingRequests);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "shareit-server.client.mode", havingValue = "reactive")
+    static class Reactive {
+        // pool metrics are published by reactor-netty under reactor.netty.connection.provider.*
+        @Bean
+        public ConnectionProvider shareItServerConnectionProvider(
+                @Value("${shareit-server.client.max-total}") int maxTotal,
+                @Value("${shareit-server.client.max-pending}") int maxPending,
+                @Value("${shareit-server.client.pool-timeout}") Duration poolTimeout,
+                @Value("${shareit-server.client.idle-timeout}") Duration idleTimeout) {
+            return ConnectionProvider.builder(POOL_NAME)
+                    .maxConnections(maxTotal)
+                    .pendingAcquireMaxCount(maxPending)
+                    .pendingAcquireTimeout(poolTimeout)
+                    .maxIdleTime(idleTimeout)
+                    .evictInBackground(idleTimeout)
+                    .metrics(true)
+                    .build();
+        }
+
+        @Bean
+        public ServerTransportFactory reactiveServerTransports(@Value("${shareit-server.url}") String serverUrl,
+                                                               WebClient.Builder builder,
+                                                               ConnectionProvider shareItServerConnectionProvider,
+                                                               @Value("${shareit-server.client.connect-timeout}") Duration connectTimeout,
+                                                               @Value("${shareit-server.client.read-timeout}") Duration readTimeout) {
+            HttpClient httpClient = HttpClient.create(shareItServerConnectionProvider)
+                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                    .responseTimeout(readTimeout);
+            WebClient.Builder connectedBuilder = builder.clientConnector(new ReactorClientHttpConnector(httpClient));
+            return apiPrefix -> new WebClientServerTransport(connectedBuilder.clone()
+                    .baseUrl(serverUrl + apiPrefix)
+                    .build());
+        }
+    }
+}
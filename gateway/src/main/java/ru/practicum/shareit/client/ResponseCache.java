@@ -0,0 +1,132 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+@Component
+@Slf4j
+public class ResponseCache implements MeterBinder {
+    private static final String CACHE_NAME = "shareit-gateway-responses";
+
+    // a change under the key's api prefix can alter what the listed prefixes return: item dtos carry comment
+    // author names and booking dates, request dtos carry their items, deleting a user cascades to everything
+    private static final Map<String, List<String>> AFFECTED_PREFIXES = Map.of(
+            "/users", List.of("/users", "/items", "/requests"),
+            "/items", List.of("/items", "/requests"),
+            "/bookings", List.of("/items"),
+            "/requests", List.of("/requests")
+    );
+
+    private final boolean enabled;
+    private final long freshForNanos;
+    // one cache per api prefix, so a change clears only the prefixes it affects without scanning the others
+    private final Map<String, Partition> partitions = new HashMap<>();
+
+    public ResponseCache(@Value("${shareit-gateway.cache.enabled}") boolean enabled,
+                         @Value("${shareit-gateway.cache.max-size}") long maxSize,
+                         @Value("${shareit-gateway.cache.ttl}") Duration ttl,
+                         @Value("${shareit-gateway.cache.fresh-for}") Duration freshFor) {
+        this.enabled = enabled;
+        this.freshForNanos = freshFor.toNanos();
+        for (String apiPrefix : AFFECTED_PREFIXES.keySet()) {
+            partitions.put(apiPrefix, new Partition(Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfterAccess(ttl)
+                    .recordStats()
+                    .build()));
+        }
+    }
+
+    public Mono<ResponseEntity<Object>> get(String apiPrefix, String uri, @Nullable Long userId,
+                                            Function<HttpHeaders, Mono<ResponseEntity<Object>>> exchange) {
+        Partition partition = partitions.get(apiPrefix);
+        if (!enabled || partition == null) {
+            return exchange.apply(HttpHeaders.EMPTY);
+        }
+        String key = uri + "|" + userId;
+        long startedGeneration = partition.generation.get();
+        CachedResponse cached = partition.cache.getIfPresent(key);
+        if (cached == null) {
+            return exchange.apply(HttpHeaders.EMPTY)
+                    .doOnNext(response -> store(partition, key, response, startedGeneration));
+        }
+        if (System.nanoTime() - cached.getValidatedAt() < freshForNanos) {
+            return Mono.just(cached.getResponse());
+        }
+
+        HttpHeaders revalidation = new HttpHeaders();
+        revalidation.setIfNoneMatch(cached.getEtag());
+        return exchange.apply(revalidation)
+                .map(response -> {
+                    if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                        log.debug("Cached response for {}{} is still valid.", apiPrefix, key);
+                        cached.setValidatedAt(System.nanoTime());
+                        return cached.getResponse();
+                    }
+                    store(partition, key, response, startedGeneration);
+                    return response;
+                });
+    }
+
+    // whole prefixes are cleared: the gateway sees only paths, e.g. it cannot tell the item of PATCH /bookings/{id}
+    public void evictAffectedBy(String apiPrefix) {
+        if (!enabled) {
+            return;
+        }
+        for (String prefix : AFFECTED_PREFIXES.getOrDefault(apiPrefix, List.of(apiPrefix))) {
+            Partition partition = partitions.get(prefix);
+            if (partition != null) {
+                partition.generation.incrementAndGet();
+                partition.cache.invalidateAll();
+            }
+        }
+    }
+
+    // stored first and checked after, an eviction between the check and the store would keep the older answer
+    private void store(Partition partition, String key, ResponseEntity<Object> response, long startedGeneration) {
+        String etag = response.getHeaders().getETag();
+        if (!response.getStatusCode().is2xxSuccessful() || etag == null) {
+            partition.cache.invalidate(key);
+            return;
+        }
+        CachedResponse cached = new CachedResponse(response, etag, System.nanoTime());
+        partition.cache.put(key, cached);
+        if (partition.generation.get() != startedGeneration) {
+            partition.cache.asMap().remove(key, cached);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        partitions.forEach((apiPrefix, partition) ->
+                CaffeineCacheMetrics.monitor(registry, partition.cache, CACHE_NAME, "prefix", apiPrefix));
+    }
+
+    private static class Partition {
+        private final Cache<String, CachedResponse> cache;
+        // bumped by every eviction, so a read that started before a mutation never keeps its older answer
+        private final AtomicLong generation = new AtomicLong();
+
+        private Partition(Cache<String, CachedResponse> cache) {
+            this.cache = cache;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+public class RestTemplateServerTransport implements ServerTransport {
+    private final RestTemplate rest;
+    private final boolean passthrough;
+    private final ClientHttpRequestFactory streamingRequests;
+
+    // streamingRequests must not buffer request bodies; RestTemplate's own interceptors buffer them, so streamed
+    // calls skip the template and its http.client.requests metrics
+    public RestTemplateServerTransport(RestTemplate rest, boolean passthrough, ClientHttpRequestFactory streamingRequests) {
+        this.rest = rest;
+        this.passthrough = passthrough;
+        this.streamingRequests = streamingRequests;
+    }
+
+    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
+        if (response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+
+        if (response.hasBody()) {
+            return responseBuilder.body(response.getBody());
+        }
+
+        return responseBuilder.build();
+    }
+
+    // the call runs on the subscribing servlet thread, exactly as before the transports were introduced
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, @Nullable Long userId,
+                                                 @Nullable Map<String, Object> parameters, @Nullable Object body,
+                                                 HttpHeaders extraHeaders) {
+        return Mono.fromCallable(() -> passthrough
+                ? relayRequest(method, path, userId, parameters, body, extraHeaders)
+                : makeAndSendRequest(method, path, userId, parameters, body, extraHeaders));
+    }
+
+    // the server's bytes and headers go back as they are, the gateway never parses the response json. The body is read
+    // whole for the same reasons as in WebClientServerTransport.exchange
+    private ResponseEntity<Object> relayRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable Object body, HttpHeaders extraHeaders) {
+        HttpEntity<Object> requestEntity = new HttpEntity<>(body, defaultHeaders(userId, extraHeaders));
+
+        ResponseEntity<byte[]> shareitServerResponse;
+        try {
+            if (parameters != null) {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
+            } else {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
+            }
+        } catch (HttpStatusCodeException e) {
+            return ServerResponses.relay(e.getStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
+        }
+        return ServerResponses.relay(shareitServerResponse.getStatusCode(), shareitServerResponse.getHeaders(),
+                shareitServerResponse.getBody());
+    }
+
+    @Override
+    public void stream(HttpMethod method, String path, @Nullable Long userId, MediaType contentType, InputStream body,
+                       HttpServletResponse response) throws IOException {
+        HttpHeaders extraHeaders = new HttpHeaders();
+        extraHeaders.setContentType(contentType);
+        ClientHttpRequest request = streamingRequests.createRequest(rest.getUriTemplateHandler().expand(path), method);
+        request.getHeaders().addAll(defaultHeaders(userId, extraHeaders));
+        if (request instanceof StreamingHttpOutputMessage) {
+            ((StreamingHttpOutputMessage) request).setBody(out -> StreamUtils.copy(body, out));
+        } else {
+            StreamUtils.copy(body, request.getBody());
+        }
+        try (ClientHttpResponse shareitServerResponse = request.execute()) {
+            ServerResponses.relayHead(shareitServerResponse.getStatusCode(), shareitServerResponse.getHeaders(), response);
+            StreamUtils.copy(shareitServerResponse.getBody(), response.getOutputStream());
+        }
+    }
+
+    private ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable Object body, HttpHeaders extraHeaders) {
+        HttpEntity<Object> requestEntity = new HttpEntity<>(body, defaultHeaders(userId, extraHeaders));
+
+        ResponseEntity<Object> shareitServerResponse;
+        try {
+            if (parameters != null) {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
+            } else {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+            }
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+        }
+        return prepareGatewayResponse(shareitServerResponse);
+    }
+
+    private HttpHeaders defaultHeaders(Long userId, HttpHeaders extraHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(extraHeaders);
+        if (headers.getContentType() == null) {
+            headers.setContentType(MediaType.APPLICATION_JSON);
+        }
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        if (userId != null) {
+            headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        }
+        return headers;
+    }
+}
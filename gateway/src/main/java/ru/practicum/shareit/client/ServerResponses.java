@@ -0,0 +1,43 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.Locale;
+import java.util.Set;
+
+final class ServerResponses {
+    // these describe the gateway <-> server connection and are recomputed for the client by the gateway's own server
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "transfer-encoding", "content-length",
+            "keep-alive");
+
+    private ServerResponses() {
+    }
+
+    static ResponseEntity<Object> relay(HttpStatus status, @Nullable HttpHeaders serverHeaders, @Nullable byte[] body) {
+        return ResponseEntity.status(status)
+                .headers(endToEndHeaders(serverHeaders))
+                .body(body);
+    }
+
+    // the status and headers go out before the first body bytes are copied to the client
+    static void relayHead(HttpStatus status, @Nullable HttpHeaders serverHeaders, HttpServletResponse response) {
+        response.setStatus(status.value());
+        endToEndHeaders(serverHeaders).forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+    }
+
+    private static HttpHeaders endToEndHeaders(@Nullable HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        if (serverHeaders != null) {
+            serverHeaders.forEach((name, values) -> {
+                if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    headers.addAll(name, values);
+                }
+            });
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+public interface ServerTransport {
+    default Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, @Nullable Long userId,
+                                                  @Nullable Map<String, Object> parameters, @Nullable Object body) {
+        return exchange(method, path, userId, parameters, body, HttpHeaders.EMPTY);
+    }
+
+    Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, @Nullable Long userId,
+                                          @Nullable Map<String, Object> parameters, @Nullable Object body,
+                                          HttpHeaders extraHeaders);
+
+    // relays a body of any size to the server and the server's answer into the servlet response, neither is held in
+    // memory. Blocks the calling thread, which has to read the servlet input stream anyway
+    void stream(HttpMethod method, String path, @Nullable Long userId, MediaType contentType, InputStream body,
+                HttpServletResponse response) throws IOException;
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class WebClientServerTransport implements ServerTransport {
+    private static final DataBufferFactory BUFFERS = new DefaultDataBufferFactory();
+    private static final int STREAM_BUFFER_SIZE = 8192;
+    // body buffers received ahead of the client, so a slow client does not make the gateway hold the whole answer
+    private static final int STREAM_PREFETCH = 16;
+
+    private final WebClient webClient;
+
+    public WebClientServerTransport(WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    // the server's answer is relayed as raw bytes, nothing is parsed into objects on the way back. The whole body is
+    // buffered first, up to spring.codec.max-in-memory-size: callers get a ResponseEntity<Object> whose body is
+    // complete, and ResponseCache keeps those bytes to answer revalidated hits. Answers of unbounded size, the NDJSON
+    // imports, go through stream instead
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, @Nullable Long userId,
+                                                 @Nullable Map<String, Object> parameters, @Nullable Object body,
+                                                 HttpHeaders extraHeaders) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters == null ? Map.of() : parameters)
+                .accept(MediaType.APPLICATION_JSON)
+                .headers(headers -> {
+                    headers.addAll(extraHeaders);
+                    if (userId != null) {
+                        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+                    }
+                });
+        WebClient.RequestHeadersSpec<?> requestWithBody = body == null
+                ? request
+                : request.contentType(extraHeaders.getContentType() == null
+                        ? MediaType.APPLICATION_JSON
+                        : extraHeaders.getContentType()).bodyValue(body);
+
+        return requestWithBody.exchangeToMono(response -> response.toEntity(byte[].class))
+                .map(response -> ServerResponses.relay(response.getStatusCode(), response.getHeaders(),
+                        response.getBody()));
+    }
+
+    // the servlet streams are blocking, so they are only touched by the calling thread and a bounded-elastic worker,
+    // never by a netty event loop. The answer's status and headers come first, then its body buffers
+    @Override
+    public void stream(HttpMethod method, String path, @Nullable Long userId, MediaType contentType, InputStream body,
+                       HttpServletResponse response) throws IOException {
+        Flux<DataBuffer> requestBody = DataBufferUtils.readInputStream(() -> body, BUFFERS, STREAM_BUFFER_SIZE)
+                .subscribeOn(Schedulers.boundedElastic());
+        Flux<Object> answer = webClient.method(method)
+                .uri(path)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(contentType)
+                .headers(headers -> {
+                    if (userId != null) {
+                        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+                    }
+                })
+                .body(BodyInserters.fromDataBuffers(requestBody))
+                .exchangeToFlux(serverResponse -> Flux.concat(
+                        Mono.just(ResponseEntity.status(serverResponse.statusCode())
+                                .headers(serverResponse.headers().asHttpHeaders())
+                                .build()),
+                        serverResponse.bodyToFlux(DataBuffer.class)));
+
+        try (Stream<Object> parts = answer.toStream(STREAM_PREFETCH)) {
+            Iterator<Object> iterator = parts.iterator();
+            while (iterator.hasNext()) {
+                Object part = iterator.next();
+                if (part instanceof ResponseEntity) {
+                    ResponseEntity<?> head = (ResponseEntity<?>) part;
+                    ServerResponses.relayHead(head.getStatusCode(), head.getHeaders(), response);
+                    continue;
+                }
+                DataBuffer buffer = (DataBuffer) part;
+                try {
+                    StreamUtils.copy(buffer.asInputStream(), response.getOutputStream());
+                } finally {
+                    DataBufferUtils.release(buffer);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// the server has the same class: the modules share no code, keep the two copies in step
+@Configuration
+@ConditionalOnProperty(name = "shareit.threads.virtual", havingValue = "true")
+@Slf4j
+public class VirtualThreadConfig {
+    // every request, and the blocking I/O it does, runs on its own virtual thread. The executor is not a bean, so
+    // Boot still creates its applicationTaskExecutor for @Async and the like
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        log.info("Serving requests on virtual threads.");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    // looked up reflectively so the module still builds and runs on JDK 11 with the mode switched off
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Virtual threads need JDK 21 or newer, running on " + Runtime.version() + ".");
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a virtual thread executor.", e);
+        }
+    }
+}
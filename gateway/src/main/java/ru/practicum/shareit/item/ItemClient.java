@@ -1,51 +1,53 @@
 package ru.practicum.shareit.item;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerTransportFactory;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
-    @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(builder
-                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build());
+    public ItemClient(ServerTransportFactory transports, ResponseCache responseCache) {
+        super(API_PREFIX, transports, responseCache);
     }
 
-    public ResponseEntity<Object> addItem(long userId, ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> addItem(long userId, ItemDto itemDto) {
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> addComment(long userId, long itemId, CommentDto commentDto) {
+    public void importItems(long userId, InputStream ndjson, HttpServletResponse response) throws IOException {
+        postStream("/import", userId, ndjson, MediaType.APPLICATION_NDJSON, response);
+    }
+
+    public Mono<ResponseEntity<Object>> addComment(long userId, long itemId, CommentDto commentDto) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
 
-    public ResponseEntity<Object> updateItem(long userId, ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> updateItem(long userId, ItemDto itemDto) {
         return patch("/" + itemDto.getId(), userId, itemDto);
     }
 
-    public ResponseEntity<Object> getItemDtoById(long itemId, long userId) {
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<Object>> getItemDtoById(long itemId, long userId) {
+        return cachedGet("/" + itemId, userId, null);
     }
 
-    public ResponseEntity<Object> getItemsByUserId(long userId) {
+    public Mono<ResponseEntity<Object>> getItemsByUserId(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getItemsByUserIdPagination(long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getItemsByUserIdPagination(long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -53,11 +55,19 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> searchInDescription(String text) {
+    public Mono<ResponseEntity<Object>> getItemsByUserIdAfter(long userId, String after, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "after", after,
+                "size", size
+        );
+        return get("?after={after}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> searchInDescription(String text) {
         return get("/search?text=" + text);
     }
 
-    public ResponseEntity<Object> searchInDescriptionPagination(String text, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> searchInDescriptionPagination(String text, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
@@ -2,11 +2,17 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/items")
 @RequiredArgsConstructor
@@ -16,43 +22,55 @@ public class ItemController {
     private final String httpHeaderUserId = "X-Sharer-User-Id";
 
     @PostMapping
-    public ResponseEntity<Object> addItem(@RequestHeader(httpHeaderUserId) long userId,
-                                          @RequestBody ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> addItem(@RequestHeader(httpHeaderUserId) long userId,
+                                                @RequestBody ItemDto itemDto) {
         log.debug("Received request to add new Item from user {}.", userId);
 
         return itemClient.addItem(userId, itemDto);
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importItems(@RequestHeader(httpHeaderUserId) long userId, InputStream ndjson,
+                            HttpServletResponse response) throws IOException {
+        log.info("Received request to import items from user {}.", userId);
+
+        itemClient.importItems(userId, ndjson, response);
+    }
+
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@RequestHeader(httpHeaderUserId) long userId,
-                                             @PathVariable(value = "itemId") long itemId,
-                                             @RequestBody CommentDto commentDto) {
+    public Mono<ResponseEntity<Object>> addComment(@RequestHeader(httpHeaderUserId) long userId,
+                                                   @PathVariable(value = "itemId") long itemId,
+                                                   @RequestBody CommentDto commentDto) {
         log.debug("Received request to add new comment from user {} to item {}.", userId, itemId);
         return itemClient.addComment(userId, itemId, commentDto);
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@RequestHeader(httpHeaderUserId) long userId,
-                                             @RequestBody ItemDto itemDto,
-                                             @PathVariable(value = "itemId") long itemId) {
+    public Mono<ResponseEntity<Object>> updateItem(@RequestHeader(httpHeaderUserId) long userId,
+                                                   @RequestBody ItemDto itemDto,
+                                                   @PathVariable(value = "itemId") long itemId) {
         log.debug("Received request to update existed Item with id {} from user id {}.", itemId, userId);
         itemDto.setId(itemId);
         return itemClient.updateItem(userId, itemDto);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getById(@RequestHeader(httpHeaderUserId) long userId,
-                                          @PathVariable(value = "itemId") long itemId) {
+    public Mono<ResponseEntity<Object>> getById(@RequestHeader(httpHeaderUserId) long userId,
+                                                @PathVariable(value = "itemId") long itemId) {
         log.debug("Received request to get existed Item with id {}.", itemId);
 
         return itemClient.getItemDtoById(itemId, userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getUserItems(@RequestHeader(httpHeaderUserId) long userId,
-                                               @RequestParam(value = "from", required = false) Integer from,
-                                               @RequestParam(value = "size", required = false) Integer size) {
+    public Mono<ResponseEntity<Object>> getUserItems(@RequestHeader(httpHeaderUserId) long userId,
+                                                     @RequestParam(value = "from", required = false) Integer from,
+                                                     @RequestParam(value = "size", required = false) Integer size,
+                                                     @RequestParam(value = "after", required = false) String after) {
         log.debug("Received request to get items list by user id {}.", userId);
+        if (after != null && size != null) {
+            return itemClient.getItemsByUserIdAfter(userId, after, size);
+        }
         if (from != null && size != null) {
             return itemClient.getItemsByUserIdPagination(userId, from, size);
         }
@@ -60,9 +78,9 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchForItems(@RequestParam String text,
-                                                 @RequestParam(value = "from", required = false) Integer from,
-                                                 @RequestParam(value = "size", required = false) Integer size) {
+    public Mono<ResponseEntity<Object>> searchForItems(@RequestParam String text,
+                                                       @RequestParam(value = "from", required = false) Integer from,
+                                                       @RequestParam(value = "size", required = false) Integer size) {
         log.debug("Received request for search items by description with text: \"{}\"", text);
         if (from != null && size != null) {
             return itemClient.searchInDescriptionPagination(text, from, size);
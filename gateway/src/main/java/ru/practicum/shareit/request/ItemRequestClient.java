@@ -1,13 +1,11 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerTransportFactory;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.util.Map;
@@ -16,35 +14,39 @@ import java.util.Map;
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
-    @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(builder
-                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build());
+    public ItemRequestClient(ServerTransportFactory transports, ResponseCache responseCache) {
+        super(API_PREFIX, transports, responseCache);
     }
 
-    public ResponseEntity<Object> addNewRequest(long userId, ItemRequestDto itemRequestDto) {
+    public Mono<ResponseEntity<Object>> addNewRequest(long userId, ItemRequestDto itemRequestDto) {
         return post("", userId, itemRequestDto);
     }
 
-    public ResponseEntity<Object> getUserRequests(long userId) {
+    public Mono<ResponseEntity<Object>> getUserRequests(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getOtherUsersRequests(long userId) {
-        return get("/all", userId);
+    public Mono<ResponseEntity<Object>> getOtherUsersRequests(long userId) {
+        return cachedGet("/all", userId, null);
     }
 
-    public ResponseEntity<Object> getOtherUsersRequestsPagination(long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getOtherUsersRequestsPagination(long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
         );
-        return get("/all?from={from}&size={size}", userId, parameters);
+        return cachedGet("/all?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getRequest(long userId, long requestId) {
+    public Mono<ResponseEntity<Object>> getOtherUsersRequestsAfter(long userId, String after, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "after", after,
+                "size", size
+        );
+        return cachedGet("/all?after={after}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getRequest(long userId, long requestId) {
         return get("/" + requestId, userId);
     }
 }
\ No newline at end of file
@@ -2,10 +2,16 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+
 @RestController
 @RequestMapping(path = "/users")
 @RequiredArgsConstructor
@@ -14,38 +20,45 @@ public class UserController {
     private final UserClient userClient;
 
     @PostMapping
-    public ResponseEntity<Object> addUser(@RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<Object>> addUser(@RequestBody UserDto userDto) {
         log.info("Received request to add new user.");
 
         return userClient.addUser(userDto);
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importUsers(InputStream ndjson, HttpServletResponse response) throws IOException {
+        log.info("Received request to import users.");
+
+        userClient.importUsers(ndjson, response);
+    }
+
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> updateUser(@PathVariable(value = "userId") long userId,
-                                             @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<Object>> updateUser(@PathVariable(value = "userId") long userId,
+                                                   @RequestBody UserDto userDto) {
         log.info("Received request to update existed information about user with id {}.", userId);
 
         return userClient.updateUser(userId, userDto);
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getUserById(@PathVariable(value = "userId") long userId) {
+    public Mono<ResponseEntity<Object>> getUserById(@PathVariable(value = "userId") long userId) {
         log.info("Received request to get existed user with id {}.", userId);
 
         return userClient.getUserById(userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAll() {
+    public Mono<ResponseEntity<Object>> getAll() {
         log.info("Received request to get all users.");
 
         return userClient.getAll();
     }
 
     @DeleteMapping("/{userId}")
-    public void deleteUser(@PathVariable(value = "userId") long userId) {
+    public Mono<Void> deleteUser(@PathVariable(value = "userId") long userId) {
         log.info("Received request to delete user with id {}.", userId);
 
-        userClient.deleteUser(userId);
+        return userClient.deleteUser(userId).then();
     }
 }
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest {
+    private final ResponseCache cache = new ResponseCache(true, 100, Duration.ofMinutes(10), Duration.ZERO);
+    private final List<HttpHeaders> sent = new ArrayList<>();
+
+    @Test
+    void hitIsRevalidatedWithItsEtag() {
+        get("/items", ok("first", "\"1\""));
+
+        ResponseEntity<Object> response = get("/items", respond(new ResponseEntity<>(HttpStatus.NOT_MODIFIED)));
+
+        assertThat(sent.get(0)).isEmpty();
+        assertThat(sent.get(1).getIfNoneMatch()).containsExactly("\"1\"");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo("first");
+    }
+
+    @Test
+    void changedAnswerReplacesTheCachedOne() {
+        get("/items", ok("first", "\"1\""));
+        assertThat(get("/items", ok("second", "\"2\"")).getBody()).isEqualTo("second");
+
+        get("/items", respond(new ResponseEntity<>(HttpStatus.NOT_MODIFIED)));
+
+        assertThat(sent.get(2).getIfNoneMatch()).containsExactly("\"2\"");
+    }
+
+    @Test
+    void freshHitIsServedWithoutTheServer() {
+        ResponseCache freshCache = new ResponseCache(true, 100, Duration.ofMinutes(10), Duration.ofMinutes(1));
+        freshCache.get("/items", "/items/1", 1L, ok("first", "\"1\"")).block();
+
+        ResponseEntity<Object> response = freshCache.get("/items", "/items/1", 1L, ok("second", "\"2\"")).block();
+
+        assertThat(response.getBody()).isEqualTo("first");
+        assertThat(sent).hasSize(1);
+    }
+
+    @Test
+    void answerWithoutEtagOrFailedIsNotCached() {
+        get("/items", respond(ResponseEntity.ok("no etag")));
+        get("/items", respond(ResponseEntity.status(HttpStatus.NOT_FOUND).eTag("\"1\"").build()));
+        get("/items", ok("first", "\"1\""));
+
+        assertThat(sent).allMatch(HttpHeaders::isEmpty);
+    }
+
+    // the server answered before the change, the gateway gets the answer after the change was evicted
+    @Test
+    void readThatOverlapsChangeIsNotCached() {
+        get("/items", headers -> {
+            sent.add(headers);
+            cache.evictAffectedBy("/bookings");
+            return Mono.just(ResponseEntity.ok().eTag("\"1\"").body((Object) "before"));
+        });
+
+        get("/items", ok("after", "\"2\""));
+
+        assertThat(sent).allMatch(HttpHeaders::isEmpty);
+    }
+
+    @Test
+    void changeEvictsOnlyAffectedPrefixes() {
+        get("/items", ok("item", "\"1\""));
+        get("/users", ok("user", "\"1\""));
+
+        cache.evictAffectedBy("/bookings");
+        get("/items", ok("item", "\"1\""));
+        get("/users", respond(new ResponseEntity<>(HttpStatus.NOT_MODIFIED)));
+
+        assertThat(sent.get(2)).isEmpty();
+        assertThat(sent.get(3).getIfNoneMatch()).containsExactly("\"1\"");
+    }
+
+    @Test
+    void changeOfAnotherPrefixDoesNotStopCaching() {
+        get("/users", headers -> {
+            sent.add(headers);
+            cache.evictAffectedBy("/bookings");
+            return Mono.just(ResponseEntity.ok().eTag("\"1\"").body((Object) "user"));
+        });
+
+        get("/users", respond(new ResponseEntity<>(HttpStatus.NOT_MODIFIED)));
+
+        assertThat(sent.get(1).getIfNoneMatch()).containsExactly("\"1\"");
+    }
+
+    private ResponseEntity<Object> get(String apiPrefix, Function<HttpHeaders, Mono<ResponseEntity<Object>>> exchange) {
+        return cache.get(apiPrefix, apiPrefix + "/1", 1L, exchange).block();
+    }
+
+    private Function<HttpHeaders, Mono<ResponseEntity<Object>>> ok(String body, String etag) {
+        return respond(ResponseEntity.ok().eTag(etag).body(body));
+    }
+
+    private Function<HttpHeaders, Mono<ResponseEntity<Object>>> respond(ResponseEntity<?> response) {
+        return headers -> {
+            sent.add(headers);
+            @SuppressWarnings("unchecked")
+            ResponseEntity<Object> answer = (ResponseEntity<Object>) response;
+            return Mono.just(answer);
+        };
+    }
+}
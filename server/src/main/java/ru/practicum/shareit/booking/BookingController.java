@@ -2,9 +2,16 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.booking.model.dto.BookingStatusChange;
+import ru.practicum.shareit.booking.model.dto.BookingStatusResult;
+import ru.practicum.shareit.booking.model.dto.ItemFreePeriodsDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.pagination.SliceResponse;
 
 import java.util.List;
 
@@ -33,35 +40,67 @@ public class BookingController {
         return bookingService.setStatus(userId, bookingId, approved);
     }
 
+    @PatchMapping("/bulk")
+    public List<BookingStatusResult> changeItemStatuses(@RequestHeader(httpHeaderUserId) long userId,
+                                                       @RequestBody List<BookingStatusChange> changes) {
+        log.debug("Received request from user {} to change statuses of {} bookings.", userId,
+                changes == null ? 0 : changes.size());
+
+        return bookingService.setStatuses(userId, changes);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getInfoAboutBooking(@RequestHeader(httpHeaderUserId) long userId,
-                                          @PathVariable(value = "bookingId") long bookingId) {
+                                          @PathVariable(value = "bookingId") long bookingId,
+                                          WebRequest request) {
         log.debug("Received request to get info about booking {} from user {}.", userId, bookingId);
 
-        return bookingService.getBookingInfo(userId, bookingId);
+        return bookingService.getBookingInfo(userId, bookingId, request::checkNotModified);
     }
 
     @GetMapping()
-    public List<BookingDto> getUsersBookings(@RequestHeader(httpHeaderUserId) long userId,
-                                             @RequestParam(defaultValue = "ALL") String state,
-                                             @RequestParam(value = "from", required = false) Integer from,
-                                             @RequestParam(value = "size", required = false) Integer size) {
+    public ResponseEntity<List<BookingDto>> getUsersBookings(@RequestHeader(httpHeaderUserId) long userId,
+                                                             @RequestParam(defaultValue = "ALL") String state,
+                                                             @RequestParam(value = "from", required = false) Integer from,
+                                                             @RequestParam(value = "size", required = false) Integer size,
+                                                             @RequestParam(value = "after", required = false) String after) {
         log.debug("Received request to get bookings of user {}.", userId);
+        if (after != null && size != null) {
+            return SliceResponse.of(bookingService.getUsersBookingsAfter(userId, state, after, size), this::toCursor);
+        }
         if (from != null && size != null) {
-            return bookingService.getUsersBookingsPagination(userId, state, from, size);
+            return SliceResponse.of(bookingService.getUsersBookingsPagination(userId, state, from, size), this::toCursor);
         }
-        return bookingService.getUsersBookings(userId, state);
+        return ResponseEntity.ok(bookingService.getUsersBookings(userId, state));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getUsersItemsBookings(@RequestHeader(httpHeaderUserId) long userId,
-                                                  @RequestParam(defaultValue = "ALL") String state,
-                                                  @RequestParam(value = "from", required = false) Integer from,
-                                                  @RequestParam(value = "size", required = false) Integer size) {
+    public ResponseEntity<List<BookingDto>> getUsersItemsBookings(@RequestHeader(httpHeaderUserId) long userId,
+                                                                  @RequestParam(defaultValue = "ALL") String state,
+                                                                  @RequestParam(value = "from", required = false) Integer from,
+                                                                  @RequestParam(value = "size", required = false) Integer size,
+                                                                  @RequestParam(value = "after", required = false) String after) {
         log.debug("Received request to get user {} items bookings.", userId);
+        if (after != null && size != null) {
+            return SliceResponse.of(bookingService.getUsersItemsBookingsAfter(userId, state, after, size), this::toCursor);
+        }
         if (from != null && size != null) {
-            return bookingService.getUsersItemsBookingsPagination(userId, state, from, size);
+            return SliceResponse.of(bookingService.getUsersItemsBookingsPagination(userId, state, from, size), this::toCursor);
         }
-        return bookingService.getUsersItemsBookings(userId, state);
+        return ResponseEntity.ok(bookingService.getUsersItemsBookings(userId, state));
+    }
+
+    @GetMapping("/free")
+    public List<ItemFreePeriodsDto> getFreePeriods(@RequestHeader(httpHeaderUserId) long userId,
+                                                   @RequestParam(value = "itemId") List<Long> itemIds,
+                                                   @RequestParam(value = "start") String start,
+                                                   @RequestParam(value = "end") String end) {
+        log.debug("Received request from user {} to get free periods of items {}.", userId, itemIds);
+
+        return bookingService.getFreePeriods(userId, itemIds, start, end);
+    }
+
+    private PageCursor toCursor(BookingDto bookingDto) {
+        return PageCursor.of(bookingDto.getStart(), bookingDto.getId());
     }
 }
@@ -0,0 +1,142 @@
+package ru.practicum.shareit.booking.availability;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dao.BookingSlotView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.model.dto.ItemFreePeriodsDto;
+import ru.practicum.shareit.exceptions.model.AlreadyUsedException;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// in-memory calendars of the items booked lately. Writers reload the calendars of the items they have locked, so
+// bookings made through other server instances are seen; readers of free periods may see them up to the ttl late.
+// The bookings_approved_no_overlap constraint in schema-postgresql.sql stays the durable guard
+@Component
+@Slf4j
+public class BookingAvailability {
+    private static final List<Status> TAKING_STATUSES = List.of(Status.WAITING, Status.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, ItemCalendar> calendars;
+    private final Counter conflicts;
+
+    public BookingAvailability(BookingRepository bookingRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${shareit.availability.max-items}") long maxItems,
+                               @Value("${shareit.availability.ttl}") Duration ttl) {
+        this.bookingRepository = bookingRepository;
+        this.calendars = Caffeine.newBuilder()
+                .maximumSize(maxItems)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.conflicts = meterRegistry.counter("shareit.booking.conflicts");
+        CaffeineCacheMetrics.monitor(meterRegistry, calendars, "booking-calendars");
+    }
+
+    public void checkIsFree(long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemCalendar calendar = calendarOf(itemId);
+        synchronized (calendar) {
+            if (!calendar.isFree(start, end)) {
+                throw conflict(itemId);
+            }
+        }
+    }
+
+    // the check and the reservation are one step, so of two concurrent approvals for the same time only one passes
+    public void approve(Booking booking) {
+        long itemId = booking.getItem().getId();
+        ItemCalendar calendar = calendarOf(itemId);
+        synchronized (calendar) {
+            if (!calendar.isFree(booking.getStart(), booking.getEnd())) {
+                throw conflict(itemId);
+            }
+            put(calendar, booking.getId(), new Slot(booking.getStart(), booking.getEnd(), Status.APPROVED));
+        }
+    }
+
+    public void record(Booking booking) {
+        ItemCalendar calendar = calendarOf(booking.getItem().getId());
+        synchronized (calendar) {
+            put(calendar, booking.getId(), new Slot(booking.getStart(), booking.getEnd(), booking.getStatus()));
+        }
+    }
+
+    // for callers holding the row locks of the items: no other booking of them can commit until they are done
+    public void reload(Collection<Long> itemIds) {
+        calendars.invalidateAll(itemIds);
+        calendars.getAll(itemIds, this::loadAll);
+    }
+
+    // calendars missing from the cache are loaded with one statement for the whole batch
+    public List<ItemFreePeriodsDto> getFreePeriods(List<Long> itemIds, LocalDateTime start, LocalDateTime end) {
+        Map<Long, ItemCalendar> batch = calendars.getAll(itemIds, this::loadAll);
+        return itemIds.stream()
+                .map(itemId -> {
+                    ItemCalendar calendar = batch.get(itemId);
+                    synchronized (calendar) {
+                        return ItemFreePeriodsDto.builder()
+                                .itemId(itemId)
+                                .free(calendar.freePeriods(start, end))
+                                .build();
+                    }
+                })
+                .collect(Collectors.toList());
+    }
+
+    // bookings removed by database cascades are not seen here
+    public void evictAll() {
+        calendars.invalidateAll();
+    }
+
+    private void put(ItemCalendar calendar, long bookingId, Slot slot) {
+        Slot previous = calendar.get(bookingId);
+        calendar.put(bookingId, slot);
+        TransactionCallbacks.afterRollback(() -> {
+            synchronized (calendar) {
+                calendar.put(bookingId, previous);
+            }
+        });
+    }
+
+    private ItemCalendar calendarOf(long itemId) {
+        return calendars.get(itemId, this::load);
+    }
+
+    private ItemCalendar load(long itemId) {
+        return loadAll(List.of(itemId)).get(itemId);
+    }
+
+    private Map<Long, ItemCalendar> loadAll(Iterable<? extends Long> itemIds) {
+        Map<Long, ItemCalendar> loaded = new HashMap<>();
+        for (Long itemId : itemIds) {
+            loaded.put(itemId, new ItemCalendar());
+        }
+        log.info("Sending to DAO request to get bookings taking time of items {}.", loaded.keySet());
+        for (BookingSlotView slot : bookingRepository.findSlotsByItemIds(loaded.keySet(), TAKING_STATUSES)) {
+            loaded.get(slot.getItemId()).put(slot.getId(), new Slot(slot.getStart(), slot.getEnd(), slot.getStatus()));
+        }
+        return loaded;
+    }
+
+    private AlreadyUsedException conflict(long itemId) {
+        conflicts.increment();
+        return new AlreadyUsedException("Item " + itemId + " is already booked for this time.");
+    }
+}
@@ -0,0 +1,210 @@
+package ru.practicum.shareit.booking.availability;
+
+import java.time.LocalDateTime;
+import java.util.function.BiConsumer;
+
+// AVL tree of half-open [start, end) intervals ordered by (start, id). Every node keeps the latest end in its
+// subtree, so an overlap probe walks a single root-to-leaf path
+class IntervalTree {
+    private Node root;
+
+    void insert(long id, LocalDateTime start, LocalDateTime end) {
+        root = insert(root, id, start, end);
+    }
+
+    void remove(long id, LocalDateTime start) {
+        root = remove(root, id, start);
+    }
+
+    boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        Node node = root;
+        while (node != null) {
+            if (node.start.isBefore(end) && start.isBefore(node.end)) {
+                return true;
+            }
+            // if the left subtree reaches past start but holds no overlap, its interval starts at or after end,
+            // and so does everything to the right
+            if (node.left != null && node.left.maxEnd.isAfter(start)) {
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return false;
+    }
+
+    // visits the intervals overlapping [start, end) in start order, skipping subtrees that end too early
+    void forEachOverlapping(LocalDateTime start, LocalDateTime end, BiConsumer<LocalDateTime, LocalDateTime> action) {
+        forEachOverlapping(root, start, end, action);
+    }
+
+    private void forEachOverlapping(Node node, LocalDateTime start, LocalDateTime end,
+                                    BiConsumer<LocalDateTime, LocalDateTime> action) {
+        if (node == null || !node.maxEnd.isAfter(start)) {
+            return;
+        }
+        forEachOverlapping(node.left, start, end, action);
+        if (!node.start.isBefore(end)) {
+            return;
+        }
+        if (node.end.isAfter(start)) {
+            action.accept(node.start, node.end);
+        }
+        forEachOverlapping(node.right, start, end, action);
+    }
+
+    // walks the whole tree and fails on a broken order, height, balance or maxEnd, returns the number of intervals
+    int checkInvariants() {
+        return checkInvariants(root, null, null);
+    }
+
+    private int checkInvariants(Node node, Node lowerBound, Node upperBound) {
+        if (node == null) {
+            return 0;
+        }
+        if ((lowerBound != null && compare(node.id, node.start, lowerBound) <= 0)
+                || (upperBound != null && compare(node.id, node.start, upperBound) >= 0)) {
+            throw new IllegalStateException("Interval " + node.id + " is out of order.");
+        }
+        int count = 1 + checkInvariants(node.left, lowerBound, node) + checkInvariants(node.right, node, upperBound);
+        if (node.height != 1 + Math.max(height(node.left), height(node.right))
+                || Math.abs(height(node.left) - height(node.right)) > 1) {
+            throw new IllegalStateException("Interval " + node.id + " is not balanced.");
+        }
+        LocalDateTime maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        if (!node.maxEnd.equals(maxEnd)) {
+            throw new IllegalStateException("Interval " + node.id + " has maxEnd " + node.maxEnd
+                    + " instead of " + maxEnd + ".");
+        }
+        return count;
+    }
+
+    private Node insert(Node node, long id, LocalDateTime start, LocalDateTime end) {
+        if (node == null) {
+            return new Node(id, start, end);
+        }
+        int compared = compare(id, start, node);
+        if (compared < 0) {
+            node.left = insert(node.left, id, start, end);
+        } else if (compared > 0) {
+            node.right = insert(node.right, id, start, end);
+        } else {
+            node.end = end;
+        }
+        return rebalance(node);
+    }
+
+    private Node remove(Node node, long id, LocalDateTime start) {
+        if (node == null) {
+            return null;
+        }
+        int compared = compare(id, start, node);
+        if (compared < 0) {
+            node.left = remove(node.left, id, start);
+        } else if (compared > 0) {
+            node.right = remove(node.right, id, start);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return rebalance(node);
+    }
+
+    private Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return rebalance(node);
+    }
+
+    private int compare(long id, LocalDateTime start, Node node) {
+        int compared = start.compareTo(node.start);
+        return compared != 0 ? compared : Long.compare(id, node.id);
+    }
+
+    private Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(node.maxEnd)) {
+            node.maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(node.maxEnd)) {
+            node.maxEnd = node.right.maxEnd;
+        }
+    }
+
+    private int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static class Node {
+        private final long id;
+        private final LocalDateTime start;
+        private LocalDateTime end;
+        private LocalDateTime maxEnd;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        private Node(long id, LocalDateTime start, LocalDateTime end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.booking.availability;
+
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.model.dto.FreePeriod;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// approved and waiting bookings of one item. Only approved ones take time and go into the tree, waiting ones are kept
+// for the moment they are approved or a change is rolled back. Callers synchronize on the calendar, so bookings of
+// different items never wait for each other
+class ItemCalendar {
+    private final IntervalTree approved = new IntervalTree();
+    private final Map<Long, Slot> slots = new HashMap<>();
+
+    boolean isFree(LocalDateTime start, LocalDateTime end) {
+        return !approved.overlaps(start, end);
+    }
+
+    // one sweep over the approved bookings in start order: every gap before the next booking is free
+    List<FreePeriod> freePeriods(LocalDateTime start, LocalDateTime end) {
+        List<FreePeriod> free = new ArrayList<>();
+        LocalDateTime[] freeFrom = {start};
+        approved.forEachOverlapping(start, end, (bookedFrom, bookedTo) -> {
+            if (bookedFrom.isAfter(freeFrom[0])) {
+                free.add(FreePeriod.builder().start(freeFrom[0]).end(bookedFrom).build());
+            }
+            if (bookedTo.isAfter(freeFrom[0])) {
+                freeFrom[0] = bookedTo;
+            }
+        });
+        if (freeFrom[0].isBefore(end)) {
+            free.add(FreePeriod.builder().start(freeFrom[0]).end(end).build());
+        }
+        return free;
+    }
+
+    Slot get(long bookingId) {
+        return slots.get(bookingId);
+    }
+
+    void put(long bookingId, Slot slot) {
+        remove(bookingId);
+        if (slot == null || slot.getStatus() == Status.REJECTED) {
+            return;
+        }
+        slots.put(bookingId, slot);
+        if (slot.getStatus() == Status.APPROVED) {
+            approved.insert(bookingId, slot.getStart(), slot.getEnd());
+        }
+    }
+
+    private void remove(long bookingId) {
+        Slot slot = slots.remove(bookingId);
+        if (slot != null && slot.getStatus() == Status.APPROVED) {
+            approved.remove(bookingId, slot.getStart());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.availability;
+
+import lombok.Value;
+import ru.practicum.shareit.booking.model.Status;
+
+import java.time.LocalDateTime;
+
+@Value
+class Slot {
+    LocalDateTime start;
+    LocalDateTime end;
+    Status status;
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.dao;
+
+public interface BookingLinkView {
+    Long getItemId();
+
+    Long getId();
+
+    Long getBookerId();
+
+    Boolean getIsLast();
+}
@@ -1,65 +1,59 @@
 package ru.practicum.shareit.booking.dao;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-
-    // getUsersBookings ----------
-    List<Booking> findAllByBooker_IdOrderByStartDesc(long bookerId);
-
-    List<Booking> findAllByStartBeforeAndEndIsAfterAndBooker_IdIsOrderByStartDesc(LocalDateTime start, LocalDateTime end, long bookerId);
-
-    List<Booking> findAllByEndBeforeAndBooker_IdIsOrderByStartDesc(LocalDateTime end, long bookerId);
-
-    List<Booking> findAllByStartIsAfterAndBooker_IdIsOrderByStartDesc(LocalDateTime start, long bookerId);
-
-    List<Booking> findAllByStatusAndBooker_IdIsOrderByStartDesc(Status status, long bookerId);
-
-    // getUsersBookingsPagination ----------
-    Page<Booking> findAllByBooker_IdOrderByStartDesc(long bookerId, Pageable page);
-
-    Page<Booking> findAllByStartBeforeAndEndIsAfterAndBooker_IdIsOrderByStartDesc(LocalDateTime start, LocalDateTime end, long bookerId, Pageable page);
-
-    Page<Booking> findAllByEndBeforeAndBooker_IdIsOrderByStartDesc(LocalDateTime end, long bookerId, Pageable page);
-
-    Page<Booking> findAllByStartIsAfterAndBooker_IdIsOrderByStartDesc(LocalDateTime start, long bookerId, Pageable page);
-
-    Page<Booking> findAllByStatusAndBooker_IdIsOrderByStartDesc(Status status, long bookerId, Pageable page);
-
-    // getUsersItemsBookings ----------
-    List<Booking> findAllByItem_Owner_IdOrderByStartDesc(long ownerId);
-
-    List<Booking> findAllByStartBeforeAndEndIsAfterAndItem_Owner_IdIsOrderByStartDesc(LocalDateTime start, LocalDateTime end, long ownerId);
-
-    List<Booking> findAllByEndBeforeAndItem_Owner_IdIsOrderByStartDesc(LocalDateTime end, long ownerId);
-
-    List<Booking> findAllByStartIsAfterAndItem_Owner_IdIsOrderByStartDesc(LocalDateTime start, long ownerId);
-
-    List<Booking> findAllByStatusAndItem_Owner_IdIsOrderByStartDesc(Status status, long ownerId);
-
-    // getUsersItemsBookingsPagination ----------
-
-    Page<Booking> findAllByItem_Owner_IdOrderByStartDesc(long ownerId, Pageable page);
-
-    Page<Booking> findAllByStartBeforeAndEndIsAfterAndItem_Owner_IdIsOrderByStartDesc(LocalDateTime start, LocalDateTime end, long ownerId, Pageable page);
-
-    Page<Booking> findAllByEndBeforeAndItem_Owner_IdIsOrderByStartDesc(LocalDateTime end, long ownerId, Pageable page);
-
-    Page<Booking> findAllByStartIsAfterAndItem_Owner_IdIsOrderByStartDesc(LocalDateTime start, long ownerId, Pageable page);
-
-    Page<Booking> findAllByStatusAndItem_Owner_IdIsOrderByStartDesc(Status status, long ownerId, Pageable page);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingSearchRepository {
 
     // last and next bookings by item id --------------
 
     Optional<Booking> findFirstByItem_IdAndStartIsBeforeOrderByStartDesc(long itemId, LocalDateTime now);
 
     Optional<Booking> findFirstByItem_IdAndStartIsAfterAndStatusOrderByStartAsc(long itemId, LocalDateTime now, Status status);
+
+    boolean existsByBooker_IdAndItem_IdAndStatusAndStartBefore(long bookerId, long itemId, Status status, LocalDateTime now);
+
+    @Query("select b.item.id from Booking b where b.id = :bookingId")
+    Optional<Long> findItemIdById(@Param("bookingId") long bookingId);
+
+    @Query("select distinct b.item.id from Booking b where b.id in :bookingIds")
+    List<Long> findItemIdsByIdIn(@Param("bookingIds") Collection<Long> bookingIds);
+
+    @Query("select b from Booking b join fetch b.item i join fetch i.owner join fetch b.booker where b.id in :bookingIds")
+    List<Booking> findAllWithItemByIdIn(@Param("bookingIds") Collection<Long> bookingIds);
+
+    // bookings that still take the item's time, loaded into BookingAvailability --------------
+
+    @Query("select b.id as id, b.item.id as itemId, b.start as start, b.end as end, b.status as status from Booking b "
+            + "where b.item.id in :itemIds and b.status in :statuses")
+    List<BookingSlotView> findSlotsByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                             @Param("statuses") Collection<Status> statuses);
+
+    // last and next bookings for several items in one statement --------------
+
+    @Query(value = "select ranked.item_id as itemId, ranked.id as id, ranked.booker_id as bookerId, ranked.is_last as isLast "
+            + "from ("
+            + "select b.item_id, b.id, b.booker_id, true as is_last, "
+            + "row_number() over (partition by b.item_id order by b.rental_start desc) as booking_rank "
+            + "from bookings b "
+            + "where b.item_id in (:itemIds) and b.rental_start < :now "
+            + "union all "
+            + "select b.item_id, b.id, b.booker_id, false as is_last, "
+            + "row_number() over (partition by b.item_id order by b.rental_start asc) as booking_rank "
+            + "from bookings b "
+            + "where b.item_id in (:itemIds) and b.rental_start > :now and b.status = :status"
+            + ") ranked "
+            + "where ranked.booking_rank = 1",
+            nativeQuery = true)
+    List<BookingLinkView> findLastAndNextBookingLinks(@Param("itemIds") Collection<Long> itemIds,
+                                                      @Param("now") LocalDateTime now,
+                                                      @Param("status") int status);
 }
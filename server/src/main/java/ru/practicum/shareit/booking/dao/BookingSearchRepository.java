@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dao;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingSearchRepository {
+    List<Booking> findAllByState(BookingRole role, long userId, BookingState state, LocalDateTime now);
+
+    Slice<Booking> findAllByState(BookingRole role, long userId, BookingState state, LocalDateTime now,
+                                  Pageable page, @Nullable PageCursor after);
+}
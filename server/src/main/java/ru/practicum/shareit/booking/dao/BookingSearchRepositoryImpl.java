@@ -0,0 +1,118 @@
+package ru.practicum.shareit.booking.dao;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BookingSearchRepositoryImpl implements BookingSearchRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Booking> findAllByState(BookingRole role, long userId, BookingState state, LocalDateTime now) {
+        return createQuery(role, userId, state, now, null).getResultList();
+    }
+
+    @Override
+    public Slice<Booking> findAllByState(BookingRole role, long userId, BookingState state, LocalDateTime now,
+                                         Pageable page, @Nullable PageCursor after) {
+        TypedQuery<Booking> query = createQuery(role, userId, state, now, after);
+        query.setFirstResult(after == null ? (int) page.getOffset() : 0);
+        // one extra row tells whether there is a next slice, so no count query is needed
+        query.setMaxResults(page.getPageSize() + 1);
+
+        List<Booking> bookings = query.getResultList();
+        boolean hasNext = bookings.size() > page.getPageSize();
+        return new SliceImpl<>(hasNext ? bookings.subList(0, page.getPageSize()) : bookings, page, hasNext);
+    }
+
+    @SuppressWarnings("unchecked")
+    private TypedQuery<Booking> createQuery(BookingRole role, long userId, BookingState state, LocalDateTime now,
+                                            @Nullable PageCursor after) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> query = builder.createQuery(Booking.class);
+
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = (Join<Booking, Item>) booking.<Booking, Item>fetch("item", JoinType.INNER);
+        Join<Item, User> owner = (Join<Item, User>) item.<Item, User>fetch("owner", JoinType.INNER);
+        Join<Booking, User> booker = (Join<Booking, User>) booking.<Booking, User>fetch("booker", JoinType.INNER);
+
+        // values are always bound as parameters, so every role/state pair renders to the same SQL text
+        Map<ParameterExpression<?>, Object> parameters = new HashMap<>();
+        List<Predicate> predicates = new ArrayList<>();
+
+        ParameterExpression<Long> userIdParameter = builder.parameter(Long.class, "userId");
+        parameters.put(userIdParameter, userId);
+        if (role == BookingRole.OWNER) {
+            predicates.add(builder.equal(owner.get("id"), userIdParameter));
+        } else {
+            predicates.add(builder.equal(booker.get("id"), userIdParameter));
+        }
+
+        ParameterExpression<LocalDateTime> nowParameter = builder.parameter(LocalDateTime.class, "now");
+        ParameterExpression<Status> statusParameter = builder.parameter(Status.class, "status");
+        switch (state) {
+            case CURRENT:
+                predicates.add(builder.lessThan(booking.get("start"), nowParameter));
+                predicates.add(builder.greaterThan(booking.get("end"), nowParameter));
+                parameters.put(nowParameter, now);
+                break;
+            case PAST:
+                predicates.add(builder.lessThan(booking.get("end"), nowParameter));
+                parameters.put(nowParameter, now);
+                break;
+            case FUTURE:
+                predicates.add(builder.greaterThan(booking.get("start"), nowParameter));
+                parameters.put(nowParameter, now);
+                break;
+            case WAITING:
+                predicates.add(builder.equal(booking.get("status"), statusParameter));
+                parameters.put(statusParameter, Status.WAITING);
+                break;
+            case REJECTED:
+                predicates.add(builder.equal(booking.get("status"), statusParameter));
+                parameters.put(statusParameter, Status.REJECTED);
+                break;
+            default:
+                break;
+        }
+
+        if (after != null) {
+            ParameterExpression<LocalDateTime> afterStartParameter = builder.parameter(LocalDateTime.class, "afterStart");
+            ParameterExpression<Long> afterIdParameter = builder.parameter(Long.class, "afterId");
+            predicates.add(builder.or(
+                    builder.lessThan(booking.get("start"), afterStartParameter),
+                    builder.and(
+                            builder.equal(booking.get("start"), afterStartParameter),
+                            builder.lessThan(booking.get("id"), afterIdParameter))));
+            parameters.put(afterStartParameter, after.getPosition());
+            parameters.put(afterIdParameter, after.getId());
+        }
+
+        query.select(booking)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(builder.desc(booking.get("start")), builder.desc(booking.get("id")));
+
+        TypedQuery<Booking> typedQuery = entityManager.createQuery(query);
+        parameters.forEach((parameter, value) -> typedQuery.setParameter((ParameterExpression<Object>) parameter, value));
+        return typedQuery;
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking.mapper;
 
+import ru.practicum.shareit.booking.dao.BookingLinkView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
 import ru.practicum.shareit.booking.model.dto.BookingLink;
@@ -39,4 +40,11 @@ public class BookingMapper {
                 .bookerId(booking.getBooker().getId())
                 .build();
     }
+
+    public static BookingLink convertToBookingLink(BookingLinkView bookingLinkView) {
+        return BookingLink.builder()
+                .id(bookingLinkView.getId())
+                .bookerId(bookingLinkView.getBookerId())
+                .build();
+    }
 }
@@ -31,4 +31,7 @@ public class Booking {
     private Item item;
     @Column(name = "status")
     private Status status;
+
+    @Version
+    private long version;
 }
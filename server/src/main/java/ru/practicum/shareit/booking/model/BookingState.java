@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.model;
+
+import ru.practicum.shareit.exceptions.model.UnknownStateException;
+
+public enum BookingState {
+    ALL,
+    CURRENT,
+    PAST,
+    FUTURE,
+    WAITING,
+    REJECTED;
+
+    public static BookingState from(String state) {
+        try {
+            return BookingState.valueOf(state);
+        } catch (IllegalArgumentException e) {
+            throw new UnknownStateException("Unknown state: " + state);
+        }
+    }
+}
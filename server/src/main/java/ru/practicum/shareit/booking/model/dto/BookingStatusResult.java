@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BookingStatusResult {
+    private long bookingId;
+    private int status;
+    private BookingDto booking;
+    private String error;
+}
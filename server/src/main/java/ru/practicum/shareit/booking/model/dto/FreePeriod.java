@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class FreePeriod {
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
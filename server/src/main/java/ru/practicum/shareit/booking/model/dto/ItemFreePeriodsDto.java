@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ItemFreePeriodsDto {
+    private long itemId;
+    private List<FreePeriod> free;
+}
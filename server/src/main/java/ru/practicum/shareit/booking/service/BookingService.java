@@ -1,26 +1,47 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.booking.dao.BookingLinkView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.booking.model.dto.BookingStatusChange;
+import ru.practicum.shareit.booking.model.dto.BookingStatusResult;
+import ru.practicum.shareit.booking.model.dto.ItemFreePeriodsDto;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Predicate;
 
 public interface BookingService {
     BookingDto createBooking(long userId, BookingDto bookingDto);
 
     BookingDto setStatus(long userId, long bookingId, boolean isApproved);
 
+    List<BookingStatusResult> setStatuses(long userId, List<BookingStatusChange> changes);
+
     BookingDto getBookingInfo(long userId, long bookingId);
 
+    BookingDto getBookingInfo(long userId, long bookingId, Predicate<String> notModified);
+
     List<BookingDto> getUsersBookings(long userId, String state);
 
-    List<BookingDto> getUsersBookingsPagination(long userId, String state, int from, int size);
+    Slice<BookingDto> getUsersBookingsPagination(long userId, String state, int from, int size);
+
+    Slice<BookingDto> getUsersBookingsAfter(long userId, String state, String after, int size);
 
     List<BookingDto> getUsersItemsBookings(long userId, String state);
 
-    List<BookingDto> getUsersItemsBookingsPagination(long userId, String state, int from, int size);
+    Slice<BookingDto> getUsersItemsBookingsPagination(long userId, String state, int from, int size);
+
+    Slice<BookingDto> getUsersItemsBookingsAfter(long userId, String state, String after, int size);
+
+    List<ItemFreePeriodsDto> getFreePeriods(long userId, List<Long> itemIds, String start, String end);
 
     Booking getLastBookingForItem(long itemId);
 
     Booking getNextBookingForItem(long itemId);
+
+    List<BookingLinkView> getLastAndNextBookingsForItems(Collection<Long> itemIds);
+
+    boolean hasUserRentedItem(long userId, long itemId);
 }
@@ -1,68 +1,160 @@
 package ru.practicum.shareit.booking.service;
 
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.availability.BookingAvailability;
+import ru.practicum.shareit.booking.dao.BookingLinkView;
 import ru.practicum.shareit.booking.dao.BookingRepository;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.booking.model.dto.BookingStatusChange;
+import ru.practicum.shareit.booking.model.dto.BookingStatusResult;
+import ru.practicum.shareit.booking.model.dto.ItemFreePeriodsDto;
 import ru.practicum.shareit.booking.service.utils.BookingServiceUtils;
+import ru.practicum.shareit.etag.EntityTags;
+import ru.practicum.shareit.exceptions.model.AlreadyUsedException;
 import ru.practicum.shareit.exceptions.model.NotFoundException;
-import ru.practicum.shareit.exceptions.model.UnknownStateException;
 import ru.practicum.shareit.exceptions.model.ValidationException;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "shareit.service", percentiles = {0.5, 0.95, 0.99})
 @RequiredArgsConstructor
 @Slf4j
 public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final BookingServiceUtils utils;
+    private final BookingAvailability availability;
 
     @Override
     @Transactional
     public BookingDto createBooking(long userId, BookingDto bookingDto) {
+        utils.lockItem(bookingDto.getItemId());
         Booking booking = utils.checkAndConvertToBooking(userId, bookingDto);
         booking.setStatus(Status.WAITING);
+        availability.checkIsFree(booking.getItem().getId(), booking.getStart(), booking.getEnd());
 
         log.info("Sending to DAO request to create new booking information.");
-        return utils.convertToDto(bookingRepository.save(booking));
+        Booking savedBooking = bookingRepository.save(booking);
+        availability.record(savedBooking);
+        return utils.convertToDto(savedBooking);
     }
 
     @Override
     @Transactional
     public BookingDto setStatus(long userId, long bookingId, boolean isApproved) {
+        long itemId = bookingRepository.findItemIdById(bookingId)
+                .orElseThrow(() -> new NotFoundException("Booking with id " + bookingId + " not present."));
+        utils.lockItem(itemId);
         Booking booking = getBookingById(bookingId);
+        changeStatus(userId, booking, isApproved);
+        log.info("Sending to DAO request to update booking {} information.", bookingId);
+        Booking savedBooking;
+        try {
+            savedBooking = bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            // bookings_approved_no_overlap, for approvals the in-memory calendar could not see
+            throw new AlreadyUsedException("Item " + booking.getItem().getId() + " is already booked for this time.");
+        }
+        return utils.convertToDto(savedBooking);
+    }
+
+    // a failed change is reported in its own result and does not stop the others
+    @Override
+    @Transactional
+    public List<BookingStatusResult> setStatuses(long userId, List<BookingStatusChange> changes) {
+        utils.checkStatusChanges(changes);
+        utils.checkIfUserPresent(userId);
+        List<Long> bookingIds = changes.stream()
+                .map(BookingStatusChange::getBookingId)
+                .collect(Collectors.toList());
+        List<Long> itemIds = bookingRepository.findItemIdsByIdIn(bookingIds);
+        utils.lockItems(itemIds);
+        log.info("Sending to DAO request to get bookings {}.", bookingIds);
+        Map<Long, Booking> bookings = bookingRepository.findAllWithItemByIdIn(bookingIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        List<BookingStatusResult> results = new ArrayList<>();
+        for (BookingStatusChange change : changes) {
+            Booking booking = bookings.get(change.getBookingId());
+            try {
+                if (booking == null) {
+                    throw new NotFoundException("Booking with id " + change.getBookingId() + " not present.");
+                }
+                changeStatus(userId, booking, change.getApproved());
+                results.add(utils.convertToResult(booking));
+            } catch (ResponseStatusException e) {
+                results.add(utils.convertToResult(change.getBookingId(), e));
+            }
+        }
+        // the changed rows go out as one JDBC batch, see hibernate.jdbc.batch_size. The batch fails as a whole and
+        // does not say which row broke bookings_approved_no_overlap, so then nothing is applied and the call is one
+        // 409 without per-booking results. With the items locked above this only happens when a calendar missed an
+        // approval, e.g. it was reloaded while that approval was still uncommitted
+        log.info("Sending to DAO request to update bookings {} information.", bookingIds);
+        try {
+            bookingRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new AlreadyUsedException("Items " + itemIds + " are already booked for some of these times.");
+        }
+        return results;
+    }
+
+    private void changeStatus(long userId, Booking booking, boolean isApproved) {
         utils.checkIsUserOwner(userId, booking);
         if ((isApproved && booking.getStatus().equals(Status.APPROVED))
                 || (isApproved && booking.getStatus().equals(Status.REJECTED))) {
             throw new ValidationException("Booking already has this status.");
         }
         if (isApproved) {
+            availability.approve(booking);
             booking.setStatus(Status.APPROVED);
         }
         if (!isApproved) {
             booking.setStatus(Status.REJECTED);
+            availability.record(booking);
         }
-        log.info("Sending to DAO request to update booking {} information.", bookingId);
-        return utils.convertToDto(bookingRepository.save(booking));
     }
 
     @Override
     @Transactional
     public BookingDto getBookingInfo(long userId, long bookingId) {
+        return getBookingInfo(userId, bookingId, etag -> false);
+    }
+
+    @Override
+    @Transactional
+    public BookingDto getBookingInfo(long userId, long bookingId, Predicate<String> notModified) {
         Booking booking = getBookingById(bookingId);
         utils.checkIsUserBookerOrOwner(userId, booking);
         log.info("Sending to DAO request to get booking {}.", bookingId);
+        String etag = EntityTags.of(booking.getId(), booking.getVersion(),
+                booking.getItem().getVersion(), booking.getBooker().getVersion());
+        if (notModified.test(etag)) {
+            return null;
+        }
         return utils.convertToDto(booking);
     }
 
@@ -71,71 +163,25 @@ public class BookingServiceImpl implements BookingService {
     public List<BookingDto> getUsersBookings(long userId, String state) {
         log.info("Sending to DAO request to get user {} bookings.", userId);
         utils.checkIfUserPresent(userId);
-        List<Booking> resultList;
-        switch (state) {
-            case "ALL":
-                resultList = bookingRepository.findAllByBooker_IdOrderByStartDesc(userId);
-                break;
-            case "CURRENT":
-                resultList = bookingRepository.findAllByStartBeforeAndEndIsAfterAndBooker_IdIsOrderByStartDesc(LocalDateTime.now(), LocalDateTime.now(), userId);
-                break;
-            case "PAST":
-                resultList = bookingRepository.findAllByEndBeforeAndBooker_IdIsOrderByStartDesc(LocalDateTime.now(), userId);
-                break;
-            case "FUTURE":
-                resultList = bookingRepository.findAllByStartIsAfterAndBooker_IdIsOrderByStartDesc(LocalDateTime.now(), userId);
-                break;
-            case "WAITING":
-                resultList = bookingRepository.findAllByStatusAndBooker_IdIsOrderByStartDesc(Status.WAITING, userId);
-                break;
-            case "REJECTED":
-                resultList = bookingRepository.findAllByStatusAndBooker_IdIsOrderByStartDesc(Status.REJECTED, userId);
-                break;
-            default:
-                throw new UnknownStateException("Unknown state: " + state);
-        }
-        return resultList.stream()
-                .map(BookingMapper::convertToDto)
-                .collect(Collectors.toList());
+        return findBookings(BookingRole.BOOKER, userId, state);
     }
 
     @Override
     @Transactional
-    public List<BookingDto> getUsersBookingsPagination(long userId, String state, int from, int size) {
-        if (from < 0) {
-            throw new ValidationException("From value can not be negative.");
-        }
-        if (size < 1) {
-            throw new ValidationException("Size is too small.");
-        }
+    public Slice<BookingDto> getUsersBookingsPagination(long userId, String state, int from, int size) {
+        checkPagination(from, size);
         log.info("Sending to DAO request to get user {} bookings pagination.", userId);
         utils.checkIfUserPresent(userId);
-        Page<Booking> resultList;
-        switch (state) {
-            case "ALL":
-                resultList = bookingRepository.findAllByBooker_IdOrderByStartDesc(userId, PageRequest.of(from / size, size));
-                break;
-            case "CURRENT":
-                resultList = bookingRepository.findAllByStartBeforeAndEndIsAfterAndBooker_IdIsOrderByStartDesc(LocalDateTime.now(), LocalDateTime.now(), userId, PageRequest.of(from / size, size));
-                break;
-            case "PAST":
-                resultList = bookingRepository.findAllByEndBeforeAndBooker_IdIsOrderByStartDesc(LocalDateTime.now(), userId, PageRequest.of(from / size, size));
-                break;
-            case "FUTURE":
-                resultList = bookingRepository.findAllByStartIsAfterAndBooker_IdIsOrderByStartDesc(LocalDateTime.now(), userId, PageRequest.of(from / size, size));
-                break;
-            case "WAITING":
-                resultList = bookingRepository.findAllByStatusAndBooker_IdIsOrderByStartDesc(Status.WAITING, userId, PageRequest.of(from / size, size));
-                break;
-            case "REJECTED":
-                resultList = bookingRepository.findAllByStatusAndBooker_IdIsOrderByStartDesc(Status.REJECTED, userId, PageRequest.of(from / size, size));
-                break;
-            default:
-                throw new UnknownStateException("Unknown state: " + state);
-        }
-        return resultList.stream()
-                .map(BookingMapper::convertToDto)
-                .collect(Collectors.toList());
+        return findBookings(BookingRole.BOOKER, userId, state, OffsetPageRequest.of(from, size), null);
+    }
+
+    @Override
+    @Transactional
+    public Slice<BookingDto> getUsersBookingsAfter(long userId, String state, String after, int size) {
+        checkPagination(0, size);
+        log.info("Sending to DAO request to get user {} bookings after cursor.", userId);
+        utils.checkIfUserPresent(userId);
+        return findBookings(BookingRole.BOOKER, userId, state, OffsetPageRequest.of(0, size), PageCursor.decodeWithPosition(after));
     }
 
     @Override
@@ -143,71 +189,39 @@ public class BookingServiceImpl implements BookingService {
     public List<BookingDto> getUsersItemsBookings(long userId, String state) {
         log.info("Sending to DAO request to get user's {} items bookings.", userId);
         utils.checkIfUserPresent(userId);
-        List<Booking> resultList;
-        switch (state) {
-            case "ALL":
-                resultList = bookingRepository.findAllByItem_Owner_IdOrderByStartDesc(userId);
-                break;
-            case "CURRENT":
-                resultList = bookingRepository.findAllByStartBeforeAndEndIsAfterAndItem_Owner_IdIsOrderByStartDesc(LocalDateTime.now(), LocalDateTime.now(), userId);
-                break;
-            case "PAST":
-                resultList = bookingRepository.findAllByEndBeforeAndItem_Owner_IdIsOrderByStartDesc(LocalDateTime.now(), userId);
-                break;
-            case "FUTURE":
-                resultList = bookingRepository.findAllByStartIsAfterAndItem_Owner_IdIsOrderByStartDesc(LocalDateTime.now(), userId);
-                break;
-            case "WAITING":
-                resultList = bookingRepository.findAllByStatusAndItem_Owner_IdIsOrderByStartDesc(Status.WAITING, userId);
-                break;
-            case "REJECTED":
-                resultList = bookingRepository.findAllByStatusAndItem_Owner_IdIsOrderByStartDesc(Status.REJECTED, userId);
-                break;
-            default:
-                throw new UnknownStateException("Unknown state: " + state);
-        }
-        return resultList.stream()
-                .map(BookingMapper::convertToDto)
-                .collect(Collectors.toList());
+        return findBookings(BookingRole.OWNER, userId, state);
     }
 
     @Override
     @Transactional
-    public List<BookingDto> getUsersItemsBookingsPagination(long userId, String state, int from, int size) {
-        if (from < 0) {
-            throw new ValidationException("From value can not be negative.");
-        }
-        if (size < 1) {
-            throw new ValidationException("Size is too small.");
-        }
+    public Slice<BookingDto> getUsersItemsBookingsPagination(long userId, String state, int from, int size) {
+        checkPagination(from, size);
         log.info("Sending to DAO request to get user's {} items bookings pagination.", userId);
         utils.checkIfUserPresent(userId);
-        Page<Booking> resultList;
-        switch (state) {
-            case "ALL":
-                resultList = bookingRepository.findAllByItem_Owner_IdOrderByStartDesc(userId, PageRequest.of(from / size, size));
-                break;
-            case "CURRENT":
-                resultList = bookingRepository.findAllByStartBeforeAndEndIsAfterAndItem_Owner_IdIsOrderByStartDesc(LocalDateTime.now(), LocalDateTime.now(), userId, PageRequest.of(from / size, size));
-                break;
-            case "PAST":
-                resultList = bookingRepository.findAllByEndBeforeAndItem_Owner_IdIsOrderByStartDesc(LocalDateTime.now(), userId, PageRequest.of(from / size, size));
-                break;
-            case "FUTURE":
-                resultList = bookingRepository.findAllByStartIsAfterAndItem_Owner_IdIsOrderByStartDesc(LocalDateTime.now(), userId, PageRequest.of(from / size, size));
-                break;
-            case "WAITING":
-                resultList = bookingRepository.findAllByStatusAndItem_Owner_IdIsOrderByStartDesc(Status.WAITING, userId, PageRequest.of(from / size, size));
-                break;
-            case "REJECTED":
-                resultList = bookingRepository.findAllByStatusAndItem_Owner_IdIsOrderByStartDesc(Status.REJECTED, userId, PageRequest.of(from / size, size));
-                break;
-            default:
-                throw new UnknownStateException("Unknown state: " + state);
+        return findBookings(BookingRole.OWNER, userId, state, OffsetPageRequest.of(from, size), null);
+    }
+
+    @Override
+    @Transactional
+    public Slice<BookingDto> getUsersItemsBookingsAfter(long userId, String state, String after, int size) {
+        checkPagination(0, size);
+        log.info("Sending to DAO request to get user's {} items bookings after cursor.", userId);
+        utils.checkIfUserPresent(userId);
+        return findBookings(BookingRole.OWNER, userId, state, OffsetPageRequest.of(0, size), PageCursor.decodeWithPosition(after));
+    }
+
+    @Override
+    @Transactional
+    public List<ItemFreePeriodsDto> getFreePeriods(long userId, List<Long> itemIds, String start, String end) {
+        LocalDateTime from = utils.parseTime(start);
+        LocalDateTime to = utils.parseTime(end);
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Period end time is not after period start time.");
         }
-        return resultList.stream()
-                .map(BookingMapper::convertToDto)
-                .collect(Collectors.toList());
+        utils.checkIfUserPresent(userId);
+        List<Long> presentItemIds = utils.checkItemsPresent(itemIds);
+        log.info("Sending to DAO request to get free periods of items {}.", presentItemIds);
+        return availability.getFreePeriods(presentItemIds, from, to);
     }
 
     @Override
@@ -224,6 +238,49 @@ public class BookingServiceImpl implements BookingService {
         return bookingRepository.findFirstByItem_IdAndStartIsAfterAndStatusOrderByStartAsc(itemId, LocalDateTime.now(), Status.APPROVED).orElse(null);
     }
 
+    @Override
+    @Transactional
+    public List<BookingLinkView> getLastAndNextBookingsForItems(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+        log.info("Sending to DAO request to get last and next bookings for {} items.", itemIds.size());
+        return bookingRepository.findLastAndNextBookingLinks(itemIds, LocalDateTime.now(), Status.APPROVED.ordinal());
+    }
+
+    @Override
+    @Transactional
+    public boolean hasUserRentedItem(long userId, long itemId) {
+        utils.checkIfUserPresent(userId);
+
+        log.info("Sending to DAO request to check if user {} has rented item {}.", userId, itemId);
+
+        return bookingRepository.existsByBooker_IdAndItem_IdAndStatusAndStartBefore(userId, itemId,
+                Status.APPROVED, LocalDateTime.now());
+    }
+
+    private List<BookingDto> findBookings(BookingRole role, long userId, String state) {
+        BookingState bookingState = BookingState.from(state);
+        return bookingRepository.findAllByState(role, userId, bookingState, LocalDateTime.now()).stream()
+                .map(BookingMapper::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    private Slice<BookingDto> findBookings(BookingRole role, long userId, String state, Pageable page, PageCursor after) {
+        BookingState bookingState = BookingState.from(state);
+        return bookingRepository.findAllByState(role, userId, bookingState, LocalDateTime.now(), page, after)
+                .map(BookingMapper::convertToDto);
+    }
+
+    private void checkPagination(int from, int size) {
+        if (from < 0) {
+            throw new ValidationException("From value can not be negative.");
+        }
+        if (size < 1) {
+            throw new ValidationException("Size is too small.");
+        }
+    }
+
     private Booking getBookingById(long bookingId) {
         return bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Booking with id " + bookingId + " not present."));
@@ -1,24 +1,44 @@
 package ru.practicum.shareit.booking.service.utils;
 
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.availability.BookingAvailability;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.booking.model.dto.BookingStatusChange;
+import ru.practicum.shareit.booking.model.dto.BookingStatusResult;
+import ru.practicum.shareit.concurrency.StripedLocks;
 import ru.practicum.shareit.exceptions.model.NotFoundException;
 import ru.practicum.shareit.exceptions.model.ValidationException;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceOracle;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Component
 @AllArgsConstructor
 public class BookingServiceUtils {
+    private static final int MAX_FREE_PERIOD_ITEMS = 100;
+    private static final int MAX_STATUS_CHANGES = 100;
+    private static final String ITEM_LOCK = "item";
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserExistenceOracle userExistenceOracle;
+    private final StripedLocks locks;
+    private final BookingAvailability availability;
 
     public Booking checkAndConvertToBooking(long userId, BookingDto bookingDto) {
         User booker = userRepository.findById(userId)
@@ -39,13 +59,79 @@ public class BookingServiceUtils {
         return booking;
     }
 
+    // bookings of one item are changed one at a time until the transaction completes; the row lock covers
+    // other server instances, whose bookings are then read into the calendars
+    public void lockItem(long itemId) {
+        lockItems(List.of(itemId));
+    }
+
+    public void lockItems(Collection<Long> itemIds) {
+        locks.lockAllUntilCompletion(ITEM_LOCK, itemIds);
+        itemRepository.lockAllById(itemIds);
+        availability.reload(itemIds);
+    }
+
     public BookingDto convertToDto(Booking booking) {
         return BookingMapper.convertToDto(booking);
     }
 
     public void checkIfUserPresent(long userId) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User with id " + userId + " does not present in repository."));
+        userExistenceOracle.checkExists(userId);
+    }
+
+    public List<Long> checkItemsPresent(List<Long> itemIds) {
+        List<Long> distinctIds = itemIds.stream().distinct().collect(Collectors.toList());
+        if (distinctIds.isEmpty() || distinctIds.size() > MAX_FREE_PERIOD_ITEMS) {
+            throw new ValidationException("From 1 to " + MAX_FREE_PERIOD_ITEMS + " items can be requested at once.");
+        }
+        Set<Long> missing = new HashSet<>(distinctIds);
+        missing.removeAll(itemRepository.findExistingIds(distinctIds));
+        if (!missing.isEmpty()) {
+            throw new NotFoundException("Items with ids " + missing + " do not present in repository.");
+        }
+        return distinctIds;
+    }
+
+    public void checkStatusChanges(List<BookingStatusChange> changes) {
+        if (changes == null || changes.isEmpty() || changes.size() > MAX_STATUS_CHANGES) {
+            throw new ValidationException("From 1 to " + MAX_STATUS_CHANGES + " bookings can be changed at once.");
+        }
+        Set<Long> bookingIds = new HashSet<>();
+        for (BookingStatusChange change : changes) {
+            if (change == null || change.getBookingId() == null || change.getApproved() == null) {
+                throw new ValidationException("Every change needs bookingId and approved.");
+            }
+            if (!bookingIds.add(change.getBookingId())) {
+                throw new ValidationException("Booking " + change.getBookingId() + " is changed more than once.");
+            }
+        }
+    }
+
+    public BookingStatusResult convertToResult(Booking booking) {
+        return BookingStatusResult.builder()
+                .bookingId(booking.getId())
+                .status(HttpStatus.OK.value())
+                .booking(convertToDto(booking))
+                .build();
+    }
+
+    public BookingStatusResult convertToResult(long bookingId, ResponseStatusException e) {
+        return BookingStatusResult.builder()
+                .bookingId(bookingId)
+                .status(e.getRawStatusCode())
+                .error(e.getReason())
+                .build();
+    }
+
+    public LocalDateTime parseTime(String time) {
+        if (time == null) {
+            throw new ValidationException("Incorrect time information.");
+        }
+        try {
+            return LocalDateTime.parse(time);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Incorrect time information: " + time);
+        }
     }
 
     public void checkIsUserOwner(long userId, Booking booking) {
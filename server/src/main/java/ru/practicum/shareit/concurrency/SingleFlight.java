@@ -0,0 +1,76 @@
+package ru.practicum.shareit.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+// identical reads that arrive while one is already running wait for its result instead of running again
+@Component
+public class SingleFlight {
+    private static final String CALLS_METRIC = "shareit.singleflight.calls";
+
+    private final ConcurrentMap<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gaugeMapSize("shareit.singleflight.in-flight", List.of(), inFlight);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> V execute(String name, Object key, Supplier<V> loader) {
+        List<Object> flightKey = List.of(name, key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(flightKey, flight);
+        if (running != null) {
+            calls(name, "coalesced").increment();
+            return (V) await(running);
+        }
+
+        calls(name, "leader").increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    // once the current transaction commits (or right away without one), later callers start a read of their own
+    // instead of joining one that may have begun before the write; callers already waiting keep the older result
+    public void forgetAfterCommit(String name, Object key) {
+        List<Object> flightKey = List.of(name, key);
+        TransactionCallbacks.afterCommit(() -> inFlight.remove(flightKey));
+    }
+
+    // waiters get the leader's own exception, so a NotFoundException still maps to 404 for every caller
+    private Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private Counter calls(String name, String role) {
+        return meterRegistry.counter(CALLS_METRIC, "name", name, "role", role);
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exceptions.model.AlreadyUsedException;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// a fixed set of locks shared by hashed keys: changes of the same key run one by one, other keys rarely meet.
+// A lock is held until the transaction that took it completes, so the next holder reads committed rows
+@Component
+public class StripedLocks {
+    private static final long SPREAD = 0x9E3779B97F4A7C15L;
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutNanos;
+    private final MeterRegistry meterRegistry;
+
+    public StripedLocks(MeterRegistry meterRegistry,
+                        @Value("${shareit.locks.stripes}") int stripes,
+                        @Value("${shareit.locks.timeout}") Duration timeout) {
+        this.meterRegistry = meterRegistry;
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    public void lockUntilCompletion(String name, long key) {
+        lockAllUntilCompletion(name, List.of(key));
+    }
+
+    // stripes are taken in index order, so callers locking several keys never wait for each other in a circle
+    public void lockAllUntilCompletion(String name, Collection<Long> keys) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Lock of " + name + " " + keys + " requested outside of a transaction.");
+        }
+        SortedMap<Integer, Long> keysByStripe = new TreeMap<>();
+        for (long key : keys) {
+            keysByStripe.putIfAbsent(Math.floorMod(Long.hashCode(key * SPREAD), stripes.length), key);
+        }
+        List<ReentrantLock> held = new ArrayList<>();
+        long waitStart = System.nanoTime();
+        try {
+            for (Map.Entry<Integer, Long> stripe : keysByStripe.entrySet()) {
+                ReentrantLock lock = stripes[stripe.getKey()];
+                acquire(name, stripe.getValue(), lock);
+                held.add(lock);
+            }
+        } catch (RuntimeException e) {
+            unlock(held);
+            throw e;
+        }
+        long holdStart = System.nanoTime();
+        timer("shareit.lock.wait", name).record(holdStart - waitStart, TimeUnit.NANOSECONDS);
+        TransactionCallbacks.afterCompletion(() -> {
+            unlock(held);
+            timer("shareit.lock.hold", name).record(System.nanoTime() - holdStart, TimeUnit.NANOSECONDS);
+        });
+    }
+
+    private void acquire(String name, long key, ReentrantLock lock) {
+        if (lock.tryLock()) {
+            return;
+        }
+        counter("shareit.lock.contended", name).increment();
+        if (!tryLock(lock)) {
+            counter("shareit.lock.timeouts", name).increment();
+            throw new AlreadyUsedException("Too many concurrent changes of " + name + " " + key
+                    + ", repeat the request later.");
+        }
+    }
+
+    private void unlock(List<ReentrantLock> held) {
+        for (int i = held.size() - 1; i >= 0; i--) {
+            held.get(i).unlock();
+        }
+    }
+
+    private boolean tryLock(ReentrantLock lock) {
+        try {
+            return lock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Counter counter(String metric, String name) {
+        return meterRegistry.counter(metric, "name", name);
+    }
+
+    private Timer timer(String metric, String name) {
+        return meterRegistry.timer(metric, "name", name);
+    }
+}
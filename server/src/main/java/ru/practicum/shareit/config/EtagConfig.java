@@ -0,0 +1,20 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+@Configuration
+public class EtagConfig {
+    // the gateway caches /requests/all and revalidates it with If-None-Match. Single items and users, the other
+    // cached reads, get their ETags from entity versions in the services. Nothing else goes through the filter: it
+    // buffers and hashes the whole body, which listings, searches and the streamed imports must not pay for
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> shallowEtagHeaderFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/requests/all");
+        return registration;
+    }
+}
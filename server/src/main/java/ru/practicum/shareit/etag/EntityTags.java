@@ -0,0 +1,20 @@
+package ru.practicum.shareit.etag;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+public final class EntityTags {
+    private EntityTags() {
+    }
+
+    // a strong tag over the ids and versions a response is built from, computed before any dto is mapped
+    public static String of(Object... parts) {
+        String source = Arrays.stream(parts)
+                .map(String::valueOf)
+                .collect(Collectors.joining("|"));
+        return "\"" + DigestUtils.md5DigestAsHex(source.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
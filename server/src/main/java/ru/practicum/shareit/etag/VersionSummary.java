@@ -0,0 +1,10 @@
+package ru.practicum.shareit.etag;
+
+// aggregate over a child collection: any insert, delete or versioned update changes at least one of the values
+public interface VersionSummary {
+    long getCount();
+
+    long getMaxId();
+
+    long getVersionSum();
+}
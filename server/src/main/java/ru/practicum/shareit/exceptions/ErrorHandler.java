@@ -1,6 +1,7 @@
 package ru.practicum.shareit.exceptions;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -57,6 +58,13 @@ public class ErrorHandler {
         return new ErrorResponse(CONFLICT.toString(), e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(CONFLICT)
+    public ErrorResponse errorResponse(OptimisticLockingFailureException e) {
+        log.info("Returning {} answer with message: {}", CONFLICT, e.getMessage());
+        return new ErrorResponse(CONFLICT.toString(), "Entity was changed by another request, repeat with fresh data.");
+    }
+
     @ExceptionHandler
     @ResponseStatus(BAD_REQUEST)
     public ErrorResponse errorResponse(javax.validation.ValidationException e) {
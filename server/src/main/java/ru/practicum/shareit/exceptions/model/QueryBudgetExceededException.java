@@ -0,0 +1,11 @@
+package ru.practicum.shareit.exceptions.model;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+public class QueryBudgetExceededException extends RuntimeException {
+    public QueryBudgetExceededException(String reason) {
+        super(reason);
+    }
+}
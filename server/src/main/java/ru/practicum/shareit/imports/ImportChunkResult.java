@@ -0,0 +1,15 @@
+package ru.practicum.shareit.imports;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+// the new ids follow the order of the chunk's lines that are neither blank nor among the report's failures
+@Data
+@Builder
+public class ImportChunkResult {
+    private long firstLine;
+    private long lastLine;
+    private List<Long> ids;
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.imports;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ImportReport {
+    private long imported;
+    private long failed;
+    private List<ImportChunkResult> chunks;
+    private List<ImportRowResult> failures;
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.imports;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ImportRowResult {
+    private long line;
+    private String error;
+}
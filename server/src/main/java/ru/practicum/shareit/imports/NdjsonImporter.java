@@ -0,0 +1,162 @@
+package ru.practicum.shareit.imports;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exceptions.model.ValidationException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+// reads NDJSON rows one at a time and writes them in chunks, each chunk in its own transaction. A chunk the database
+// refuses is written again row by row, so a bad row costs only its own result
+@Component
+@Slf4j
+public class NdjsonImporter {
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public NdjsonImporter(ObjectMapper objectMapper,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${shareit.import.chunk-size}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    // check gives one error per row, null for a row that can be saved; save returns the new ids in row order. Only
+    // failed rows are reported one by one, the saved ones as the new ids of each chunk
+    public <T> ImportReport importRows(InputStream body, Class<T> rowType,
+                                       Function<List<T>, List<String>> check,
+                                       Function<List<T>, List<Long>> save) {
+        List<ImportChunkResult> chunks = new ArrayList<>();
+        List<ImportRowResult> failures = new ArrayList<>();
+        List<Row<T>> chunk = new ArrayList<>(chunkSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    chunk.add(new Row<>(lineNumber, objectMapper.readValue(line, rowType)));
+                } catch (JsonProcessingException e) {
+                    failures.add(failed(lineNumber, "Malformed JSON row: " + e.getOriginalMessage()));
+                }
+                if (chunk.size() == chunkSize) {
+                    chunks.add(writeChunk(chunk, check, save, failures));
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new ValidationException("Import body could not be read: " + e.getMessage());
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(writeChunk(chunk, check, save, failures));
+        }
+
+        failures.sort(Comparator.comparingLong(ImportRowResult::getLine));
+        return ImportReport.builder()
+                .imported(chunks.stream().mapToLong(chunkResult -> chunkResult.getIds().size()).sum())
+                .failed(failures.size())
+                .chunks(chunks)
+                .failures(failures)
+                .build();
+    }
+
+    // only constraint violations fall back to single rows, anything else is not about the data and ends the import
+    private <T> ImportChunkResult writeChunk(List<Row<T>> chunk, Function<List<T>, List<String>> check,
+                                             Function<List<T>, List<Long>> save, List<ImportRowResult> failures) {
+        List<Long> ids;
+        try {
+            ids = transactionTemplate.execute(status -> write(chunk, check, save, failures));
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            log.info("Import chunk of {} rows from line {} was refused, writing its rows one by one: {}",
+                    chunk.size(), chunk.get(0).getLine(), e.getMessage());
+            ids = new ArrayList<>();
+            for (Row<T> row : chunk) {
+                ids.addAll(writeRow(row, check, save, failures));
+            }
+        }
+        return ImportChunkResult.builder()
+                .firstLine(chunk.get(0).getLine())
+                .lastLine(chunk.get(chunk.size() - 1).getLine())
+                .ids(ids)
+                .build();
+    }
+
+    private <T> List<Long> writeRow(Row<T> row, Function<List<T>, List<String>> check,
+                                    Function<List<T>, List<Long>> save, List<ImportRowResult> failures) {
+        try {
+            return transactionTemplate.execute(status -> write(List.of(row), check, save, failures));
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            // flushes through the entity manager are not translated into Spring's exceptions
+            failures.add(failed(row.getLine(), "Row violates database constraints."));
+            return List.of();
+        }
+    }
+
+    // the persistence context is flushed and cleared per chunk, so it never holds more than one chunk of entities.
+    // Rows refused by check are added to failures only once the chunk is written, a chunk written again row by row
+    // would report them twice otherwise
+    private <T> List<Long> write(List<Row<T>> rows, Function<List<T>, List<String>> check,
+                                 Function<List<T>, List<Long>> save, List<ImportRowResult> failures) {
+        List<T> values = new ArrayList<>(rows.size());
+        for (Row<T> row : rows) {
+            values.add(row.getValue());
+        }
+        List<String> errors = check.apply(values);
+
+        List<T> valid = new ArrayList<>();
+        List<ImportRowResult> refused = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (errors.get(i) == null) {
+                valid.add(values.get(i));
+            } else {
+                refused.add(failed(rows.get(i).getLine(), errors.get(i)));
+            }
+        }
+        List<Long> ids = valid.isEmpty() ? List.of() : save.apply(valid);
+        entityManager.flush();
+        entityManager.clear();
+
+        failures.addAll(refused);
+        return ids;
+    }
+
+    private ImportRowResult failed(long line, String error) {
+        return ImportRowResult.builder()
+                .line(line)
+                .error(error)
+                .build();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Row<T> {
+        private final long line;
+        private final T value;
+    }
+}
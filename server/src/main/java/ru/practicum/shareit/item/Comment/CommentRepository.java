@@ -1,10 +1,22 @@
 package ru.practicum.shareit.item.Comment;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.etag.VersionSummary;
 import ru.practicum.shareit.item.Comment.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findAllByItem_IdOrderByIdDesc(long itemId);
+
+    @Query("select c from Comment c join fetch c.item join fetch c.author where c.item.id in :itemIds order by c.id desc")
+    List<Comment> findAllByItemIdsOrderByIdDesc(@Param("itemIds") Collection<Long> itemIds);
+
+    // author versions are included because comment dtos carry the author's name
+    @Query("select count(c) as count, coalesce(max(c.id), 0) as maxId, coalesce(sum(a.version), 0) as versionSum "
+            + "from Comment c join c.author a where c.item.id = :itemId")
+    VersionSummary summarizeByItemId(@Param("itemId") long itemId);
 }
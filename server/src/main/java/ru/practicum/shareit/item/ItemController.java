@@ -2,11 +2,19 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.imports.ImportReport;
 import ru.practicum.shareit.item.Comment.model.CommentDto;
 import ru.practicum.shareit.item.model.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.monitoring.QueryBudgetExempt;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.pagination.SliceResponse;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -25,6 +33,15 @@ public class ItemController {
         return itemService.addItem(userId, itemDto);
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @QueryBudgetExempt
+    public ImportReport importItems(@RequestHeader(httpHeaderUserId) long userId,
+                                    InputStream ndjson) {
+        log.info("Received request to import items from user {}.", userId);
+
+        return itemService.importItems(userId, ndjson);
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentDto addComment(@RequestHeader(httpHeaderUserId) long userId,
                                  @PathVariable(value = "itemId") long itemId,
@@ -44,21 +61,26 @@ public class ItemController {
 
     @GetMapping("/{itemId}")
     public ItemDto getById(@RequestHeader(httpHeaderUserId) long userId,
-                           @PathVariable(value = "itemId") long itemId) {
+                           @PathVariable(value = "itemId") long itemId,
+                           WebRequest request) {
         log.info("Received request to get existed Item with id {}.", itemId);
 
-        return itemService.getItemDtoById(itemId, userId);
+        return itemService.getItemDtoById(itemId, userId, request::checkNotModified);
     }
 
     @GetMapping
-    public List<ItemDto> getUserItems(@RequestHeader(httpHeaderUserId) long userId,
-                                      @RequestParam(value = "from", required = false) Integer from,
-                                      @RequestParam(value = "size", required = false) Integer size) {
+    public ResponseEntity<List<ItemDto>> getUserItems(@RequestHeader(httpHeaderUserId) long userId,
+                                                      @RequestParam(value = "from", required = false) Integer from,
+                                                      @RequestParam(value = "size", required = false) Integer size,
+                                                      @RequestParam(value = "after", required = false) String after) {
         log.info("Received request to get items list by user id {}.", userId);
+        if (after != null && size != null) {
+            return SliceResponse.of(itemService.getItemsByUserIdAfter(userId, after, size), this::toCursor);
+        }
         if (from != null && size != null) {
-            return itemService.getItemsByUserIdPagination(userId, from, size);
+            return SliceResponse.of(itemService.getItemsByUserIdPagination(userId, from, size), this::toCursor);
         }
-        return itemService.getItemsByUserId(userId);
+        return ResponseEntity.ok(itemService.getItemsByUserId(userId));
     }
 
     @GetMapping("/search")
@@ -71,4 +93,8 @@ public class ItemController {
         }
         return itemService.searchInDescription(text);
     }
+
+    private PageCursor toCursor(ItemDto itemDto) {
+        return PageCursor.of(itemDto.getId());
+    }
 }
@@ -1,20 +1,58 @@
 package ru.practicum.shareit.item.dao;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.etag.VersionSummary;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findAllByOwner_IdOrderByIdAsc(long ownerId);
 
-    Page<Item> findAllByOwner_IdOrderByIdAsc(long ownerId, Pageable page);
+    Slice<Item> findAllByOwner_IdOrderByIdAsc(long ownerId, Pageable page);
 
-    List<Item> findAllByDescriptionContainsIgnoreCase(String description);
+    Slice<Item> findAllByOwner_IdAndIdGreaterThanOrderByIdAsc(long ownerId, long afterId, Pageable page);
 
-    Page<Item> findAllByDescriptionContainsIgnoreCase(String description, Pageable page);
+    @Query("select i from Item i where i.isAvailable = true "
+            + "and (lower(i.name) like :pattern escape '\\' or lower(i.description) like :pattern escape '\\') "
+            + "order by i.id")
+    List<Item> searchAvailable(@Param("pattern") String pattern);
+
+    @Query("select i from Item i where i.isAvailable = true "
+            + "and (lower(i.name) like :pattern escape '\\' or lower(i.description) like :pattern escape '\\') "
+            + "order by i.id")
+    Slice<Item> searchAvailable(@Param("pattern") String pattern, Pageable page);
+
+    // served by the items_*_trgm_idx indexes from schema-postgresql.sql
+    @Query(value = "select * from items i where i.is_available "
+            + "and (i.name ilike :pattern or i.description ilike :pattern) "
+            + "order by i.id",
+            nativeQuery = true)
+    List<Item> searchAvailableTrigram(@Param("pattern") String pattern);
+
+    @Query(value = "select * from items i where i.is_available "
+            + "and (i.name ilike :pattern or i.description ilike :pattern) "
+            + "order by i.id",
+            nativeQuery = true)
+    Slice<Item> searchAvailableTrigram(@Param("pattern") String pattern, Pageable page);
+
+    // row lock for changes of the item's bookings that must not interleave, across server instances too
+    @Query(value = "select i.id from items i where i.id in (:ids) order by i.id for update", nativeQuery = true)
+    List<Long> lockAllById(@Param("ids") Collection<Long> ids);
+
+    @Query("select i.id from Item i where i.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 
     List<Item> findAllByRequest(long request);
+
+    List<Item> findAllByRequestInOrderByIdAsc(Collection<Long> requests);
+
+    @Query("select count(i) as count, coalesce(max(i.id), 0) as maxId, coalesce(sum(i.version), 0) as versionSum "
+            + "from Item i where i.request = :request")
+    VersionSummary summarizeByRequest(@Param("request") long request);
 }
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "database", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class DatabaseItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text) {
+        log.info("Sending to DAO request to search available items by text \"{}\".", text);
+        return itemRepository.searchAvailable(ItemSearchEngine.toLikePattern(text));
+    }
+
+    @Override
+    public Slice<Item> search(String text, Pageable page) {
+        log.info("Sending to DAO request to search available items by text \"{}\" (pagination).", text);
+        return itemRepository.searchAvailable(ItemSearchEngine.toLikePattern(text), page);
+    }
+}
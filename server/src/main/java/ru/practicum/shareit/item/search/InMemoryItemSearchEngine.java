@@ -0,0 +1,107 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.*;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory")
+@Slf4j
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final ItemIndex index = new ItemIndex();
+
+    public InMemoryItemSearchEngine(ItemRepository itemRepository, MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        Gauge.builder("shareit.search.index.documents", index, ItemIndex::documentCount)
+                .description("Items held by the in-memory search index")
+                .register(meterRegistry);
+        Gauge.builder("shareit.search.index.tokens", index, ItemIndex::tokenCount)
+                .description("Distinct trigrams held by the in-memory search index")
+                .register(meterRegistry);
+        Gauge.builder("shareit.search.index.memory", index, ItemIndex::memoryBytes)
+                .description("Approximate size of the in-memory search index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        log.info("Rebuilding in-memory item search index.");
+        index.clear();
+        Pageable page = PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("id"));
+        Slice<Item> batch;
+        do {
+            batch = itemRepository.findAll(page);
+            batch.forEach(this::put);
+            page = batch.nextPageable();
+        } while (batch.hasNext());
+        log.info("In-memory item search index holds {} items.", index.documentCount());
+    }
+
+    @Override
+    public List<Item> search(String text) {
+        long[] ids = index.search(text);
+        log.info("Sending to DAO request to get {} items found by text \"{}\".", ids.length, text);
+        return load(ids, 0, ids.length);
+    }
+
+    @Override
+    public Slice<Item> search(String text, Pageable page) {
+        long[] ids = index.search(text);
+        int from = (int) Math.min(page.getOffset(), ids.length);
+        int to = Math.min(from + page.getPageSize(), ids.length);
+        log.info("Sending to DAO request to get {} items found by text \"{}\" (pagination).", to - from, text);
+        return new SliceImpl<>(load(ids, from, to), page, to < ids.length);
+    }
+
+    @Override
+    public void onItemSaved(Item item) {
+        long id = item.getId();
+        long ownerId = item.getOwner().getId();
+        String name = item.getName();
+        String description = item.getDescription();
+        boolean available = Boolean.TRUE.equals(item.getIsAvailable());
+        TransactionCallbacks.afterCommit(() -> index.put(id, ownerId, name, description, available));
+    }
+
+    @Override
+    public void onOwnerDeleted(long ownerId) {
+        TransactionCallbacks.afterCommit(() -> index.removeByOwner(ownerId));
+    }
+
+    private void put(Item item) {
+        index.put(item.getId(), item.getOwner().getId(), item.getName(), item.getDescription(),
+                Boolean.TRUE.equals(item.getIsAvailable()));
+    }
+
+    private List<Item> load(long[] ids, int from, int to) {
+        if (from >= to) {
+            return List.of();
+        }
+        List<Long> pageIds = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            pageIds.add(ids[i]);
+        }
+        Map<Long, Item> items = itemRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return pageIds.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,192 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+class ItemIndex {
+    static final int TOKEN_LENGTH = 3;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, IndexedItem> items = new HashMap<>();
+    private final PostingList allIds = new PostingList();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // kept up to date by every change under the write lock, so a metrics scrape does not walk the index
+    private volatile long memoryBytes = allIds.memoryBytes();
+
+    void put(long id, long ownerId, String name, String description, boolean available) {
+        IndexedItem item = new IndexedItem(ownerId, name.toLowerCase(), description.toLowerCase(), available);
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+            items.put(id, item);
+            memoryBytes += item.memoryBytes();
+            addId(allIds, id);
+            for (String token : item.tokens()) {
+                PostingList list = postings.get(token);
+                if (list == null) {
+                    list = new PostingList();
+                    postings.put(token, list);
+                    memoryBytes += 2L * token.length() + list.memoryBytes();
+                }
+                addId(list, id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeByOwner(long ownerId) {
+        lock.writeLock().lock();
+        try {
+            long[] ids = allIds.toArray();
+            for (long id : ids) {
+                if (items.get(id).ownerId == ownerId) {
+                    removeUnlocked(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            for (long id : allIds.toArray()) {
+                removeUnlocked(id);
+            }
+            postings.clear();
+            memoryBytes = allIds.memoryBytes();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ids of available items whose name or description contains the text, ascending
+    long[] search(String text) {
+        String query = text.toLowerCase();
+        lock.readLock().lock();
+        try {
+            long[] candidates = candidates(query);
+            long[] result = new long[candidates.length];
+            int count = 0;
+            for (long id : candidates) {
+                IndexedItem item = items.get(id);
+                if (item.available && (item.name.contains(query) || item.description.contains(query))) {
+                    result[count++] = id;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int documentCount() {
+        lock.readLock().lock();
+        try {
+            return items.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int tokenCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long memoryBytes() {
+        return memoryBytes;
+    }
+
+    private long[] candidates(String query) {
+        if (query.length() < TOKEN_LENGTH) {
+            return allIds.toArray();
+        }
+        List<PostingList> lists = new ArrayList<>();
+        for (String token : tokens(query)) {
+            PostingList list = postings.get(token);
+            if (list == null) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+        // starting from the shortest list keeps every intersection step small
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        long[] candidates = lists.get(0).toArray();
+        for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+            candidates = lists.get(i).retainAll(candidates);
+        }
+        return candidates;
+    }
+
+    private void removeUnlocked(long id) {
+        IndexedItem item = items.remove(id);
+        if (item == null) {
+            return;
+        }
+        memoryBytes -= item.memoryBytes();
+        removeId(allIds, id);
+        for (String token : item.tokens()) {
+            PostingList list = postings.get(token);
+            if (list != null) {
+                removeId(list, id);
+                if (list.isEmpty()) {
+                    postings.remove(token);
+                    memoryBytes -= 2L * token.length() + list.memoryBytes();
+                }
+            }
+        }
+    }
+
+    // a posting list grows and shrinks its capacity in steps, its size is taken before and after the change
+    private void addId(PostingList list, long id) {
+        long before = list.memoryBytes();
+        list.add(id);
+        memoryBytes += list.memoryBytes() - before;
+    }
+
+    private void removeId(PostingList list, long id) {
+        long before = list.memoryBytes();
+        list.remove(id);
+        memoryBytes += list.memoryBytes() - before;
+    }
+
+    private static Set<String> tokens(String text) {
+        Set<String> tokens = new HashSet<>();
+        for (int i = 0; i + TOKEN_LENGTH <= text.length(); i++) {
+            tokens.add(text.substring(i, i + TOKEN_LENGTH));
+        }
+        return tokens;
+    }
+
+    private static class IndexedItem {
+        private final long ownerId;
+        private final String name;
+        private final String description;
+        private final boolean available;
+
+        private IndexedItem(long ownerId, String name, String description, boolean available) {
+            this.ownerId = ownerId;
+            this.name = name;
+            this.description = description;
+            this.available = available;
+        }
+
+        private long memoryBytes() {
+            return 2L * (name.length() + description.length());
+        }
+
+        private Set<String> tokens() {
+            Set<String> tokens = ItemIndex.tokens(name);
+            tokens.addAll(ItemIndex.tokens(description));
+            return tokens;
+        }
+    }
+}
@@ -1,23 +1,36 @@
 package ru.practicum.shareit.item.service;
 
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.etag.VersionSummary;
+import ru.practicum.shareit.imports.ImportReport;
 import ru.practicum.shareit.item.Comment.model.CommentDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.dto.ItemDto;
 
+import java.io.InputStream;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 public interface ItemService {
     ItemDto addItem(long userId, ItemDto itemDto);
 
+    ImportReport importItems(long userId, InputStream ndjson);
+
     ItemDto updateItem(long userId, ItemDto itemDto);
 
     ItemDto getItemDtoById(long itemId, long userId);
 
+    ItemDto getItemDtoById(long itemId, long userId, Predicate<String> notModified);
+
     Item getItemById(long itemId);
 
     List<ItemDto> getItemsByUserId(long userId);
 
-    List<ItemDto> getItemsByUserIdPagination(long userId, int from, int size);
+    Slice<ItemDto> getItemsByUserIdPagination(long userId, int from, int size);
+
+    Slice<ItemDto> getItemsByUserIdAfter(long userId, String after, int size);
 
     List<ItemDto> searchInDescription(String text);
 
@@ -26,4 +39,8 @@ public interface ItemService {
     CommentDto addComment(long userId, long itemId, CommentDto commentDto);
 
     List<ItemDto> getItemsForRequest(long requestId);
+
+    Map<Long, List<ItemDto>> getItemsForRequests(Collection<Long> requestIds);
+
+    VersionSummary summarizeItemsForRequest(long requestId);
 }
@@ -1,15 +1,24 @@
 package ru.practicum.shareit.item.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dao.BookingLinkView;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.concurrency.SingleFlight;
+import ru.practicum.shareit.etag.EntityTags;
+import ru.practicum.shareit.etag.VersionSummary;
 import ru.practicum.shareit.exceptions.model.NotFoundException;
 import ru.practicum.shareit.exceptions.model.ValidationException;
+import ru.practicum.shareit.imports.ImportReport;
+import ru.practicum.shareit.imports.NdjsonImporter;
 import ru.practicum.shareit.item.Comment.CommentRepository;
 import ru.practicum.shareit.item.Comment.model.Comment;
 import ru.practicum.shareit.item.Comment.model.CommentDto;
@@ -17,25 +26,40 @@ import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.item.service.utils.ItemServiceUtils;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import javax.transaction.Transactional;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "shareit.service", percentiles = {0.5, 0.95, 0.99})
 @RequiredArgsConstructor
 @Slf4j
 public class ItemServiceImpl implements ItemService {
+    private static final String ITEM_TAGS = "item-tags";
+    private static final String ITEM_READS = "items";
+
     private final ItemRepository itemRepository;
     private final BookingService bookingService;
     private final CommentRepository commentRepository;
     private final UserService userService;
     private final ItemServiceUtils utils;
+    private final ItemSearchEngine searchEngine;
+    private final SingleFlight singleFlight;
+    private final TransactionTemplate transactionTemplate;
+    private final NdjsonImporter importer;
 
     @Override
     @Transactional
@@ -51,7 +75,22 @@ public class ItemServiceImpl implements ItemService {
         log.info("Sending to DAO item to create with name {} and description {} from user {}.",
                 itemDto.getName(), itemDto.getDescription(), userId);
 
-        return utils.convertToDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        searchEngine.onItemSaved(savedItem);
+
+        return utils.convertToDto(savedItem);
+    }
+
+    // not transactional: the importer commits every chunk on its own
+    @Override
+    public ImportReport importItems(long userId, InputStream ndjson) {
+        userService.checkIsUserPresent(userId);
+
+        log.info("Sending to DAO items imported by user {}.", userId);
+
+        return importer.importRows(ndjson, ItemDto.class,
+                itemDtos -> itemDtos.stream().map(utils::checkImportedItem).collect(Collectors.toList()),
+                itemDtos -> saveImportedItems(userId, itemDtos));
     }
 
     @Override
@@ -77,7 +116,8 @@ public class ItemServiceImpl implements ItemService {
         }
 
         log.info("Sending to DAO updated item.");
-        itemRepository.save(item);
+        searchEngine.onItemSaved(itemRepository.save(item));
+        forgetReadsInFlight(itemId);
 
         return getItemDtoById(itemId, userId);
     }
@@ -86,22 +126,25 @@ public class ItemServiceImpl implements ItemService {
     @Transactional
     public ItemDto getItemDtoById(long itemId, long userId) {
         Item item = getItemById(itemId);
-        ItemDto itemDto = utils.convertToDto(item);
+        return loadItemDto(item, item.getOwner().getId() == userId);
+    }
 
-        if (item.getOwner().getId() == userId) {
-            Optional<Booking> lastBooking = Optional.ofNullable(bookingService.getLastBookingForItem(itemDto.getId()));
-            Optional<Booking> nextBooking = Optional.ofNullable(bookingService.getNextBookingForItem(itemDto.getId()));
-            lastBooking.ifPresent(booking -> itemDto.setLastBooking(BookingMapper.convertToBookingLink(lastBooking.get())));
-            nextBooking.ifPresent(booking -> itemDto.setNextBooking(BookingMapper.convertToBookingLink(nextBooking.get())));
+    // no transaction around the waits: callers joining a read already in flight must not hold a connection meanwhile.
+    // The tags are read first and a matching If-None-Match ends the call before any dto is built; the dto read is
+    // keyed by its tag, so it always matches the tag it is sent with. Changes of the item and its comments drop the
+    // tag read in flight, see forgetReadsInFlight. Booking changes do not, the booking service cannot reach this one:
+    // the owner may get the tag of a read begun before the change
+    @Override
+    public ItemDto getItemDtoById(long itemId, long userId, Predicate<String> notModified) {
+        ItemTags tags = singleFlight.execute(ITEM_TAGS, itemId,
+                () -> transactionTemplate.execute(status -> loadItemTags(itemId)));
+        boolean isOwner = tags.getOwnerId() == userId;
+        String etag = isOwner ? tags.getOwnerEtag() : tags.getEtag();
+        if (notModified.test(etag)) {
+            return null;
         }
-
-        itemDto.setComments(
-                commentRepository.findAllByItem_IdOrderByIdDesc(itemId).stream()
-                        .map(ItemMapper::convertToDto)
-                        .collect(Collectors.toList())
-        );
-
-        return itemDto;
+        return singleFlight.execute(ITEM_READS, List.of(itemId, etag),
+                () -> transactionTemplate.execute(status -> loadItemDto(getItemById(itemId), isOwner)));
     }
 
     @Override
@@ -121,31 +164,12 @@ public class ItemServiceImpl implements ItemService {
 
         List<Item> items = itemRepository.findAllByOwner_IdOrderByIdAsc(userId);
 
-        return items.stream()
-                .map(ItemMapper::convertToDto)
-                .map(itemDto -> {
-                    Optional<Booking> lastBooking = Optional.ofNullable(bookingService.getLastBookingForItem(itemDto.getId()));
-                    lastBooking.ifPresent(booking -> itemDto.setLastBooking(BookingMapper.convertToBookingLink(lastBooking.get())));
-                    return itemDto;
-                })
-                .map(itemDto -> {
-                    Optional<Booking> nextBooking = Optional.ofNullable(bookingService.getNextBookingForItem(itemDto.getId()));
-                    nextBooking.ifPresent(booking -> itemDto.setNextBooking(BookingMapper.convertToBookingLink(nextBooking.get())));
-                    return itemDto;
-                })
-                .map(itemDto -> {
-                    itemDto.setComments(
-                            commentRepository.findAllByItem_IdOrderByIdDesc(itemDto.getId()).stream()
-                                    .map(ItemMapper::convertToDto)
-                                    .collect(Collectors.toList()));
-                    return itemDto;
-                })
-                .collect(Collectors.toList());
+        return convertToDtoWithBookingsAndComments(items);
     }
 
     @Override
     @Transactional
-    public List<ItemDto> getItemsByUserIdPagination(long userId, int from, int size) {
+    public Slice<ItemDto> getItemsByUserIdPagination(long userId, int from, int size) {
         userService.checkIsUserPresent(userId);
         if (from < 0) {
             throw new ValidationException("From value can not be negative.");
@@ -156,41 +180,37 @@ public class ItemServiceImpl implements ItemService {
 
         log.info("Sending to DAO request for get items by user id {} pagination.", userId);
 
-        Page<Item> items = itemRepository.findAllByOwner_IdOrderByIdAsc(userId, PageRequest.of(from / size, size));
+        Slice<Item> items = itemRepository.findAllByOwner_IdOrderByIdAsc(userId, OffsetPageRequest.of(from, size));
 
-        return items.stream()
-                .map(ItemMapper::convertToDto)
-                .map(itemDto -> {
-                    Optional<Booking> lastBooking = Optional.ofNullable(bookingService.getLastBookingForItem(itemDto.getId()));
-                    lastBooking.ifPresent(booking -> itemDto.setLastBooking(BookingMapper.convertToBookingLink(lastBooking.get())));
-                    return itemDto;
-                })
-                .map(itemDto -> {
-                    Optional<Booking> nextBooking = Optional.ofNullable(bookingService.getNextBookingForItem(itemDto.getId()));
-                    nextBooking.ifPresent(booking -> itemDto.setNextBooking(BookingMapper.convertToBookingLink(nextBooking.get())));
-                    return itemDto;
-                })
-                .map(itemDto -> {
-                    itemDto.setComments(
-                            commentRepository.findAllByItem_IdOrderByIdDesc(itemDto.getId()).stream()
-                                    .map(ItemMapper::convertToDto)
-                                    .collect(Collectors.toList()));
-                    return itemDto;
-                })
-                .collect(Collectors.toList());
+        return new SliceImpl<>(convertToDtoWithBookingsAndComments(items.getContent()), items.getPageable(), items.hasNext());
+    }
+
+    @Override
+    @Transactional
+    public Slice<ItemDto> getItemsByUserIdAfter(long userId, String after, int size) {
+        userService.checkIsUserPresent(userId);
+        if (size < 1) {
+            throw new ValidationException("Size is too small.");
+        }
+        PageCursor cursor = PageCursor.decode(after);
+
+        log.info("Sending to DAO request for get items by user id {} after item {}.", userId, cursor.getId());
+
+        Slice<Item> items = itemRepository.findAllByOwner_IdAndIdGreaterThanOrderByIdAsc(userId, cursor.getId(),
+                OffsetPageRequest.of(0, size));
+
+        return new SliceImpl<>(convertToDtoWithBookingsAndComments(items.getContent()), items.getPageable(), items.hasNext());
     }
 
     @Override
     @Transactional
     public List<ItemDto> searchInDescription(String text) {
-        log.info("Sending to DAO request to search items by text \"{}\".", text);
+        log.info("Received request to search items by text \"{}\".", text);
         if (text.isBlank()) {
             return new ArrayList<>();
         }
-        List<Item> items = itemRepository.findAllByDescriptionContainsIgnoreCase(text);
 
-        return items.stream()
-                .filter(Item::getIsAvailable)
+        return searchEngine.search(text).stream()
                 .map(ItemMapper::convertToDto)
                 .collect(Collectors.toList());
     }
@@ -198,7 +218,7 @@ public class ItemServiceImpl implements ItemService {
     @Override
     @Transactional
     public List<ItemDto> searchInDescriptionPagination(String text, int from, int size) {
-        log.info("Sending to DAO request to search items by text \"{}\" (pagination).", text);
+        log.info("Received request to search items by text \"{}\" (pagination).", text);
         if (from < 0) {
             throw new ValidationException("From value can not be negative.");
         }
@@ -208,10 +228,8 @@ public class ItemServiceImpl implements ItemService {
         if (text.isBlank()) {
             return new ArrayList<>();
         }
-        Page<Item> items = itemRepository.findAllByDescriptionContainsIgnoreCase(text, PageRequest.of(from / size, size));
 
-        return items.stream()
-                .filter(Item::getIsAvailable)
+        return searchEngine.search(text, OffsetPageRequest.of(from, size)).stream()
                 .map(ItemMapper::convertToDto)
                 .collect(Collectors.toList());
     }
@@ -224,7 +242,10 @@ public class ItemServiceImpl implements ItemService {
         Comment comment = utils.createComment(commentDto, userId, item);
         log.info("Sending to DAO request to add new comment from user {} to item {}.", userId, itemId);
 
-        return utils.convertToDto(commentRepository.save(comment));
+        Comment savedComment = commentRepository.save(comment);
+        forgetReadsInFlight(itemId);
+
+        return utils.convertToDto(savedComment);
     }
 
     @Override
@@ -235,4 +256,110 @@ public class ItemServiceImpl implements ItemService {
                 .map(ItemMapper::convertToDto)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    @Transactional
+    public Map<Long, List<ItemDto>> getItemsForRequests(Collection<Long> requestIds) {
+        if (requestIds.isEmpty()) {
+            return Map.of();
+        }
+        log.info("Sending to DAO request to get items for {} requests.", requestIds.size());
+        return itemRepository.findAllByRequestInOrderByIdAsc(requestIds).stream()
+                .collect(Collectors.groupingBy(Item::getRequest,
+                        Collectors.mapping(ItemMapper::convertToDto, Collectors.toList())));
+    }
+
+    @Override
+    @Transactional
+    public VersionSummary summarizeItemsForRequest(long requestId) {
+        return itemRepository.summarizeByRequest(requestId);
+    }
+
+    private void forgetReadsInFlight(long itemId) {
+        singleFlight.forgetAfterCommit(ITEM_TAGS, itemId);
+    }
+
+    // both views at once, so owner and other callers share one read; the bookings are two indexed lookups
+    private ItemTags loadItemTags(long itemId) {
+        Item item = getItemById(itemId);
+        Optional<Booking> lastBooking = Optional.ofNullable(bookingService.getLastBookingForItem(itemId));
+        Optional<Booking> nextBooking = Optional.ofNullable(bookingService.getNextBookingForItem(itemId));
+        VersionSummary comments = commentRepository.summarizeByItemId(itemId);
+        String etag = EntityTags.of(item.getId(), item.getVersion(), false, null, null, null, null,
+                comments.getCount(), comments.getMaxId(), comments.getVersionSum());
+        String ownerEtag = EntityTags.of(item.getId(), item.getVersion(), true,
+                lastBooking.map(Booking::getId).orElse(null), lastBooking.map(Booking::getVersion).orElse(null),
+                nextBooking.map(Booking::getId).orElse(null), nextBooking.map(Booking::getVersion).orElse(null),
+                comments.getCount(), comments.getMaxId(), comments.getVersionSum());
+        return new ItemTags(item.getOwner().getId(), etag, ownerEtag);
+    }
+
+    private ItemDto loadItemDto(Item item, boolean isOwner) {
+        long itemId = item.getId();
+        Optional<Booking> lastBooking = Optional.empty();
+        Optional<Booking> nextBooking = Optional.empty();
+        if (isOwner) {
+            lastBooking = Optional.ofNullable(bookingService.getLastBookingForItem(itemId));
+            nextBooking = Optional.ofNullable(bookingService.getNextBookingForItem(itemId));
+        }
+
+        ItemDto itemDto = utils.convertToDto(item);
+        lastBooking.ifPresent(booking -> itemDto.setLastBooking(BookingMapper.convertToBookingLink(booking)));
+        nextBooking.ifPresent(booking -> itemDto.setNextBooking(BookingMapper.convertToBookingLink(booking)));
+        itemDto.setComments(
+                commentRepository.findAllByItem_IdOrderByIdDesc(itemId).stream()
+                        .map(ItemMapper::convertToDto)
+                        .collect(Collectors.toList())
+        );
+        return itemDto;
+    }
+
+    private List<ItemDto> convertToDtoWithBookingsAndComments(List<Item> items) {
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, List<BookingLinkView>> bookingLinks = bookingService.getLastAndNextBookingsForItems(itemIds).stream()
+                .collect(Collectors.groupingBy(BookingLinkView::getItemId));
+        Map<Long, List<CommentDto>> comments = commentRepository.findAllByItemIdsOrderByIdDesc(itemIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(ItemMapper::convertToDto, Collectors.toList())));
+
+        return items.stream()
+                .map(item -> {
+                    ItemDto itemDto = ItemMapper.convertToDto(item);
+                    for (BookingLinkView bookingLink : bookingLinks.getOrDefault(item.getId(), List.of())) {
+                        if (bookingLink.getIsLast()) {
+                            itemDto.setLastBooking(BookingMapper.convertToBookingLink(bookingLink));
+                        } else {
+                            itemDto.setNextBooking(BookingMapper.convertToBookingLink(bookingLink));
+                        }
+                    }
+                    itemDto.setComments(comments.getOrDefault(item.getId(), new ArrayList<>()));
+                    return itemDto;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private List<Long> saveImportedItems(long ownerId, List<ItemDto> itemDtos) {
+        User owner = userService.getUserById(ownerId);
+        List<Item> items = itemDtos.stream()
+                .map(itemDto -> utils.convertToImportedItem(itemDto, owner))
+                .collect(Collectors.toList());
+        List<Item> savedItems = itemRepository.saveAll(items);
+        savedItems.forEach(searchEngine::onItemSaved);
+        return savedItems.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+    }
+
+    @Value
+    private static class ItemTags {
+        long ownerId;
+        String etag;
+        String ownerEtag;
+    }
 }
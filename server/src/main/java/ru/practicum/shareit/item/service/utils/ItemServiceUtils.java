@@ -2,7 +2,6 @@ package ru.practicum.shareit.item.service.utils;
 
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Component;
-import ru.practicum.shareit.booking.model.dto.BookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exceptions.model.ValidationException;
 import ru.practicum.shareit.item.Comment.model.Comment;
@@ -14,7 +13,6 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Component
 @AllArgsConstructor
@@ -37,6 +35,24 @@ public class ItemServiceUtils {
         }
     }
 
+    // null when the row can be imported, checked like a single new item
+    public String checkImportedItem(ItemDto itemDto) {
+        try {
+            checkItemDtoValidation(itemDto);
+            checkIsItemAvailable(itemDto);
+        } catch (ValidationException e) {
+            return e.getReason();
+        }
+        return null;
+    }
+
+    // ids in imported rows are ignored, the sequence hands out new ones
+    public Item convertToImportedItem(ItemDto itemDto, User owner) {
+        Item item = convertToItem(itemDto, owner);
+        item.setId(0);
+        return item;
+    }
+
     public ItemDto convertToDto(Item item) {
         return ItemMapper.convertToDto(item);
     }
@@ -46,12 +62,7 @@ public class ItemServiceUtils {
     }
 
     public void checkIfUserRentedItem(long userId, long itemId) {
-        List<BookingDto> usersBookings = bookingService.getUsersBookings(userId, "ALL");
-        if (usersBookings.stream()
-                .filter(bookingDto -> bookingDto.getItem().getId() == itemId)
-                .filter(bookingDto -> bookingDto.getStatus().equals("APPROVED"))
-                .filter(bookingDto -> bookingDto.getStart().isBefore(LocalDateTime.now()))
-                .count() == 0) {
+        if (!bookingService.hasUserRentedItem(userId, itemId)) {
             throw new ValidationException("This user wasn't rented item.");
         }
     }
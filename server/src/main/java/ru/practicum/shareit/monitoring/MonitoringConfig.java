@@ -0,0 +1,54 @@
+package ru.practicum.shareit.monitoring;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import net.ttddyy.dsproxy.proxy.NanoTimeStopwatchFactory;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+@Configuration
+@RequiredArgsConstructor
+public class MonitoringConfig implements WebMvcConfigurer {
+    private final MeterRegistry meterRegistry;
+    private final QueryBudgetGuard queryBudgetGuard;
+
+    @Bean
+    public TimedAspect timedAspect() {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                ProxyDataSource proxy = ProxyDataSourceBuilder.create((DataSource) bean)
+                        .name(beanName)
+                        .listener(new QueryCountingListener())
+                        .build();
+                // elapsed times in nanoseconds: most statements of a request take well under a millisecond
+                proxy.setProxyConfig(ProxyConfig.Builder.from(proxy.getProxyConfig())
+                        .stopwatchFactory(new NanoTimeStopwatchFactory())
+                        .build());
+                return proxy;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new QueryCountInterceptor(meterRegistry, queryBudgetGuard));
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.monitoring;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// for endpoints whose statement count grows with the request body by design, e.g. bulk imports
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudgetExempt {
+}
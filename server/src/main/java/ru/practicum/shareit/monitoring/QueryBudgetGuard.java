@@ -0,0 +1,63 @@
+package ru.practicum.shareit.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.practicum.shareit.exceptions.model.QueryBudgetExceededException;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.Map;
+
+@Component
+@Slf4j
+public class QueryBudgetGuard {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    private final int maxStatements;
+    private final Duration maxDbTime;
+    private final boolean strict;
+
+    public QueryBudgetGuard(@Value("${shareit.query-budget.statements:10}") int maxStatements,
+                            @Value("${shareit.query-budget.db-time:500ms}") Duration maxDbTime,
+                            @Value("${shareit.query-budget.strict:false}") boolean strict) {
+        this.maxStatements = maxStatements;
+        this.maxDbTime = maxDbTime;
+        this.strict = strict;
+    }
+
+    // warns once per request; in strict mode a response that is still being written is failed as well
+    void check(HttpServletRequest request, RequestQueries queries, boolean canFail) {
+        if (queries == null || queries.isBudgetReported() || isExempt(request)
+                || (queries.getStatements() <= maxStatements && queries.getElapsedNanos() <= maxDbTime.toNanos())) {
+            return;
+        }
+        queries.markBudgetReported();
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern == null ? request.getRequestURI() : pattern);
+        Map.Entry<String, Integer> repeated = queries.mostRepeatedShape().orElse(Map.entry("", 0));
+        log.warn("Query budget exceeded: endpoint=\"{}\" userId={} statements={} maxStatements={} dbTimeMs={} "
+                        + "maxDbTimeMs={} repeatedSqlCount={} repeatedSql=\"{}\"",
+                endpoint, request.getHeader(USER_ID_HEADER), queries.getStatements(), maxStatements,
+                millis(queries.getElapsedNanos()), maxDbTime.toMillis(), repeated.getValue(), repeated.getKey());
+
+        if (strict && canFail) {
+            throw new QueryBudgetExceededException("Query budget exceeded for " + endpoint + ": "
+                    + queries.getStatements() + " statements, " + millis(queries.getElapsedNanos()) + " ms.");
+        }
+    }
+
+    // to the microsecond, which is as far as a request's database time is worth reading
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private boolean isExempt(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        return handler instanceof HandlerMethod
+                && ((HandlerMethod) handler).hasMethodAnnotation(QueryBudgetExempt.class);
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+@RequiredArgsConstructor
+class QueryCountInterceptor implements HandlerInterceptor {
+    private final MeterRegistry meterRegistry;
+    private final QueryBudgetGuard guard;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        QueryCounter.start();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        RequestQueries queries = QueryCounter.stop();
+        if (queries == null) {
+            return;
+        }
+        guard.check(request, queries, false);
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+
+        DistributionSummary.builder("shareit.http.statements")
+                .description("JDBC statements executed while serving a request")
+                .tags("method", request.getMethod(), "uri", uri)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(queries.getStatements());
+        Timer.builder("shareit.http.db.time")
+                .description("Time spent in JDBC statements while serving a request")
+                .tags("method", request.getMethod(), "uri", uri)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(queries.getElapsedNanos(), TimeUnit.NANOSECONDS);
+    }
+}
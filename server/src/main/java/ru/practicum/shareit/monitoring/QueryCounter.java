@@ -0,0 +1,22 @@
+package ru.practicum.shareit.monitoring;
+
+public final class QueryCounter {
+    private static final ThreadLocal<RequestQueries> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    static void start() {
+        CURRENT.set(new RequestQueries());
+    }
+
+    static RequestQueries current() {
+        return CURRENT.get();
+    }
+
+    static RequestQueries stop() {
+        RequestQueries queries = CURRENT.get();
+        CURRENT.remove();
+        return queries;
+    }
+}
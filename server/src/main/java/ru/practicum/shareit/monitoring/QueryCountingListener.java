@@ -0,0 +1,23 @@
+package ru.practicum.shareit.monitoring;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+class QueryCountingListener implements QueryExecutionListener {
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    // a batch is sent in one round trip, so every execution counts as a single statement. Elapsed times are in
+    // nanoseconds, see the stopwatch in MonitoringConfig
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestQueries queries = QueryCounter.current();
+        if (queries != null) {
+            queries.record(queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery(), execInfo.getElapsedTime());
+        }
+    }
+}
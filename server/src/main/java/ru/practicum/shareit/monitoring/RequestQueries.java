@@ -0,0 +1,47 @@
+package ru.practicum.shareit.monitoring;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+@Getter
+public class RequestQueries {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'[^']*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\?(\\s*,\\s*\\?)*\\)");
+
+    private int statements;
+    private long elapsedNanos;
+    private boolean budgetReported;
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Integer> shapes = new HashMap<>();
+
+    void record(String sql, long elapsedNanos) {
+        statements++;
+        this.elapsedNanos += elapsedNanos;
+        shapes.merge(shapeOf(sql), 1, Integer::sum);
+    }
+
+    void markBudgetReported() {
+        budgetReported = true;
+    }
+
+    Optional<Map.Entry<String, Integer>> mostRepeatedShape() {
+        return shapes.entrySet().stream()
+                .max(Comparator.comparingInt(Map.Entry::getValue));
+    }
+
+    // statements that differ only in literals or in the length of an IN list share a shape
+    static String shapeOf(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return PARAMETER_LIST.matcher(shape).replaceAll("(?)");
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.Data;
+import ru.practicum.shareit.exceptions.model.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+@Data
+public class PageCursor {
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime position;
+    private final long id;
+
+    public static PageCursor of(LocalDateTime position, long id) {
+        return new PageCursor(position, id);
+    }
+
+    public static PageCursor of(long id) {
+        return new PageCursor(null, id);
+    }
+
+    public String encode() {
+        String value = (position == null ? "" : position.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = value.lastIndexOf(SEPARATOR);
+            String position = value.substring(0, separatorIndex);
+            long id = Long.parseLong(value.substring(separatorIndex + 1));
+            return new PageCursor(position.isEmpty() ? null : LocalDateTime.parse(position), id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ValidationException("Invalid pagination cursor.");
+        }
+    }
+
+    public static PageCursor decodeWithPosition(String cursor) {
+        PageCursor pageCursor = decode(cursor);
+        if (pageCursor.getPosition() == null) {
+            throw new ValidationException("Invalid pagination cursor.");
+        }
+        return pageCursor;
+    }
+}
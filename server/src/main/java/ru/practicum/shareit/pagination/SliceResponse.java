@@ -0,0 +1,20 @@
+package ru.practicum.shareit.pagination;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+public class SliceResponse {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static <T> ResponseEntity<List<T>> of(Slice<T> slice, Function<T, PageCursor> cursorOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (slice.hasNext() && slice.hasContent()) {
+            List<T> content = slice.getContent();
+            response.header(NEXT_CURSOR_HEADER, cursorOf.apply(content.get(content.size() - 1)).encode());
+        }
+        return response.body(slice.getContent());
+    }
+}
@@ -2,7 +2,11 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.pagination.SliceResponse;
 import ru.practicum.shareit.request.model.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
@@ -33,23 +37,33 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDto> getOtherUsersExistingRequestsPagination(@RequestHeader(httpHeaderUserId) long userId,
+    public ResponseEntity<List<ItemRequestDto>> getOtherUsersExistingRequestsPagination(@RequestHeader(httpHeaderUserId) long userId,
              @RequestParam(value = "from", required = false) Integer from,
-             @RequestParam(value = "size", required = false) Integer size) {
+             @RequestParam(value = "size", required = false) Integer size,
+             @RequestParam(value = "after", required = false) String after) {
         log.info("Received request from user {} to get other users ItemsRequests.", userId);
 
+        if (after != null && size != null) {
+            return SliceResponse.of(requestService.getOtherUsersRequestsAfter(userId, after, size), this::toCursor);
+        }
+
         if (from != null && size != null) {
-            return requestService.getOtherUsersRequestsPagination(userId, from, size);
+            return SliceResponse.of(requestService.getOtherUsersRequestsPagination(userId, from, size), this::toCursor);
         }
 
-        return requestService.getOtherUsersRequests(userId);
+        return ResponseEntity.ok(requestService.getOtherUsersRequests(userId));
     }
 
     @GetMapping("/{requestId}")
     public ItemRequestDto getRequest(@RequestHeader(httpHeaderUserId) long userId,
-                                     @PathVariable(value = "requestId") long requestId) {
+                                     @PathVariable(value = "requestId") long requestId,
+                                     WebRequest request) {
         log.info("Received request to get request {}.", requestId);
 
-        return requestService.getRequest(userId, requestId);
+        return requestService.getRequest(userId, requestId, request::checkNotModified);
+    }
+
+    private PageCursor toCursor(ItemRequestDto itemRequestDto) {
+        return PageCursor.of(itemRequestDto.getCreated(), itemRequestDto.getId());
     }
-}
\ No newline at end of file
+}
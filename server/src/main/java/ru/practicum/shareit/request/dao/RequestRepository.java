@@ -1,10 +1,13 @@
 package ru.practicum.shareit.request.dao;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface RequestRepository extends JpaRepository<ItemRequest, Long> {
@@ -12,5 +15,13 @@ public interface RequestRepository extends JpaRepository<ItemRequest, Long> {
 
     List<ItemRequest> findAllByPublisherIsNotOrderByCreationDateDesc(long publisher);
 
-    Page<ItemRequest> findAllByPublisherIsNotOrderByCreationDateDesc(long publisher, Pageable page);
+    Slice<ItemRequest> findAllByPublisherIsNotOrderByCreationDateDescIdDesc(long publisher, Pageable page);
+
+    @Query("select r from ItemRequest r where r.publisher <> :publisher "
+            + "and (r.creationDate < :creationDate or (r.creationDate = :creationDate and r.id < :id)) "
+            + "order by r.creationDate desc, r.id desc")
+    Slice<ItemRequest> findAllByPublisherIsNotAfter(@Param("publisher") long publisher,
+                                                    @Param("creationDate") LocalDateTime creationDate,
+                                                    @Param("id") long id,
+                                                    Pageable page);
 }
@@ -25,4 +25,7 @@ public class ItemRequest {
     private String description;
     @Column(name = "creation_date", nullable = false)
     private LocalDateTime creationDate;
+
+    @Version
+    private long version;
 }
@@ -1,8 +1,10 @@
 package ru.practicum.shareit.request.service;
 
+import org.springframework.data.domain.Slice;
 import ru.practicum.shareit.request.model.dto.ItemRequestDto;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 public interface ItemRequestService {
     ItemRequestDto addNewRequest(long userId, ItemRequestDto itemRequestDto);
@@ -11,7 +13,11 @@ public interface ItemRequestService {
 
     List<ItemRequestDto> getOtherUsersRequests(long userId);
 
-    List<ItemRequestDto> getOtherUsersRequestsPagination(long userId, int from, int size);
+    Slice<ItemRequestDto> getOtherUsersRequestsPagination(long userId, int from, int size);
+
+    Slice<ItemRequestDto> getOtherUsersRequestsAfter(long userId, String after, int size);
 
     ItemRequestDto getRequest(long userId, long requestId);
+
+    ItemRequestDto getRequest(long userId, long requestId, Predicate<String> notModified);
 }
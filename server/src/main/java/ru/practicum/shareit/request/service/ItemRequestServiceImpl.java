@@ -1,11 +1,16 @@
 package ru.practicum.shareit.request.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.concurrency.SingleFlight;
 import ru.practicum.shareit.exceptions.model.NotFoundException;
 import ru.practicum.shareit.exceptions.model.ValidationException;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dao.RequestRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.model.dto.ItemRequestDto;
@@ -13,14 +18,20 @@ import ru.practicum.shareit.request.service.utils.ItemRequestServiceUtils;
 
 import javax.transaction.Transactional;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 @Service
+@Timed(value = "shareit.service", percentiles = {0.5, 0.95, 0.99})
 @RequiredArgsConstructor
 @Slf4j
 public class ItemRequestServiceImpl implements ItemRequestService {
+    private static final String REQUEST_TAGS = "request-tags";
+    private static final String REQUEST_READS = "requests";
+
     private final RequestRepository repository;
     private final ItemRequestServiceUtils utils;
+    private final SingleFlight singleFlight;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     @Transactional
@@ -37,9 +48,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         utils.checkIsUserPresent(userId);
 
         log.info("Sending to DAO request to get user {} item requests.", userId);
-        return repository.findAllByPublisher(userId).stream()
-                .map(utils::convertToDto)
-                .collect(Collectors.toList());
+        return utils.convertToDto(repository.findAllByPublisher(userId));
     }
 
     @Override
@@ -47,14 +56,12 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     public List<ItemRequestDto> getOtherUsersRequests(long userId) {
         log.info("Sending to DAO request from user {} to get other users ItemRequests.", userId);
 
-        return repository.findAllByPublisherIsNotOrderByCreationDateDesc(userId).stream()
-                .map(utils::convertToDto)
-                .collect(Collectors.toList());
+        return utils.convertToDto(repository.findAllByPublisherIsNotOrderByCreationDateDesc(userId));
     }
 
     @Override
     @Transactional
-    public List<ItemRequestDto> getOtherUsersRequestsPagination(long userId, int from, int size) {
+    public Slice<ItemRequestDto> getOtherUsersRequestsPagination(long userId, int from, int size) {
         log.info("Sending to DAO request from user {} to get other users ItemRequests.", userId);
         if (from < 0) {
             throw new ValidationException("From value can not be negative.");
@@ -63,18 +70,47 @@ public class ItemRequestServiceImpl implements ItemRequestService {
             throw new ValidationException("Size is too small.");
         }
 
-        return repository.findAllByPublisherIsNotOrderByCreationDateDesc(userId, PageRequest.of(from / size, size))
-                .stream()
-                .map(utils::convertToDto)
-                .collect(Collectors.toList());
+        return utils.convertToDto(repository.findAllByPublisherIsNotOrderByCreationDateDescIdDesc(userId,
+                OffsetPageRequest.of(from, size)));
+    }
+
+    @Override
+    @Transactional
+    public Slice<ItemRequestDto> getOtherUsersRequestsAfter(long userId, String after, int size) {
+        log.info("Sending to DAO request from user {} to get other users ItemRequests after cursor.", userId);
+        if (size < 1) {
+            throw new ValidationException("Size is too small.");
+        }
+        PageCursor cursor = PageCursor.decodeWithPosition(after);
+
+        return utils.convertToDto(repository.findAllByPublisherIsNotAfter(userId, cursor.getPosition(), cursor.getId(),
+                OffsetPageRequest.of(0, size)));
     }
 
     @Override
     @Transactional
     public ItemRequestDto getRequest(long userId, long requestId) {
         utils.checkIsUserPresent(userId);
+        return utils.convertToDto(findRequest(requestId));
+    }
+
+    // the answer does not depend on who asks, so every caller of one request shares a read in flight. The tag is read
+    // first and the dto is only built when the client's copy is stale, in a read keyed by that tag
+    @Override
+    public ItemRequestDto getRequest(long userId, long requestId, Predicate<String> notModified) {
+        utils.checkIsUserPresent(userId);
+        String etag = singleFlight.execute(REQUEST_TAGS, requestId,
+                () -> transactionTemplate.execute(status -> utils.getEtag(findRequest(requestId))));
+        if (notModified.test(etag)) {
+            return null;
+        }
+        return singleFlight.execute(REQUEST_READS, List.of(requestId, etag),
+                () -> transactionTemplate.execute(status -> utils.convertToDto(findRequest(requestId))));
+    }
+
+    private ItemRequest findRequest(long requestId) {
         log.info("Sending to DAO request to get ItemRequest.");
-        return utils.convertToDto(repository.findById(requestId)
-                .orElseThrow(() -> new NotFoundException("Item with id " + requestId + " does not present in repository.")));
+        return repository.findById(requestId)
+                .orElseThrow(() -> new NotFoundException("Item with id " + requestId + " does not present in repository."));
     }
 }
@@ -1,7 +1,11 @@
 package ru.practicum.shareit.request.service.utils;
 
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Component;
+import ru.practicum.shareit.etag.EntityTags;
+import ru.practicum.shareit.etag.VersionSummary;
 import ru.practicum.shareit.item.model.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
@@ -11,6 +15,8 @@ import ru.practicum.shareit.user.service.UserService;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Component
 @AllArgsConstructor
@@ -31,6 +37,26 @@ public class ItemRequestServiceUtils {
         return ItemRequestMapper.convertToDto(itemRequest, items);
     }
 
+    public List<ItemRequestDto> convertToDto(List<ItemRequest> itemRequests) {
+        Map<Long, List<ItemDto>> items = itemService.getItemsForRequests(itemRequests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList()));
+        return itemRequests.stream()
+                .map(itemRequest -> ItemRequestMapper.convertToDto(itemRequest,
+                        items.getOrDefault(itemRequest.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+
+    public Slice<ItemRequestDto> convertToDto(Slice<ItemRequest> itemRequests) {
+        return new SliceImpl<>(convertToDto(itemRequests.getContent()), itemRequests.getPageable(), itemRequests.hasNext());
+    }
+
+    public String getEtag(ItemRequest itemRequest) {
+        VersionSummary items = itemService.summarizeItemsForRequest(itemRequest.getId());
+        return EntityTags.of(itemRequest.getId(), itemRequest.getVersion(),
+                items.getCount(), items.getMaxId(), items.getVersionSum());
+    }
+
     public void checkIsUserPresent(long userId) {
         userService.checkIsUserPresent(userId);
     }
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.transaction;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+public final class TransactionCallbacks {
+    private static final Object UNDO_KEY = new Object();
+
+    private TransactionCallbacks() {
+    }
+
+    // runs the action once the current transaction commits, or right away when there is none
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // runs the action if the current transaction does not commit, to undo in-memory changes made on its behalf.
+    // Undo actions of one transaction run in reverse order of registration, so the state before the transaction
+    // comes back even when the same thing was changed twice
+    public static void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Deque<Runnable> undo = (Deque<Runnable>) TransactionSynchronizationManager.getResource(UNDO_KEY);
+        if (undo == null) {
+            undo = new ArrayDeque<>();
+            TransactionSynchronizationManager.bindResource(UNDO_KEY, undo);
+            TransactionSynchronizationManager.registerSynchronization(new UndoSynchronization(undo));
+        }
+        undo.push(action);
+    }
+
+    // runs the action once the current transaction completes either way, or right away when there is none
+    public static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    // the undo stack is bound like a transactional resource: an inner REQUIRES_NEW transaction gets its own
+    private static class UndoSynchronization implements TransactionSynchronization {
+        private final Deque<Runnable> undo;
+
+        private UndoSynchronization(Deque<Runnable> undo) {
+            this.undo = undo;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(UNDO_KEY);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(UNDO_KEY, undo);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(UNDO_KEY);
+            if (status != STATUS_COMMITTED) {
+                while (!undo.isEmpty()) {
+                    undo.pop().run();
+                }
+            }
+        }
+    }
+}
@@ -2,10 +2,15 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.imports.ImportReport;
+import ru.practicum.shareit.monitoring.QueryBudgetExempt;
 import ru.practicum.shareit.user.model.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -22,6 +27,14 @@ public class UserController {
         return userService.addUser(userDto);
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @QueryBudgetExempt
+    public ImportReport importUsers(InputStream ndjson) {
+        log.info("Received request to import users.");
+
+        return userService.importUsers(ndjson);
+    }
+
     @PatchMapping("/{userId}")
     public UserDto updateUser(@PathVariable(value = "userId") long userId,
                               @RequestBody UserDto userDto) {
@@ -31,10 +44,11 @@ public class UserController {
     }
 
     @GetMapping("/{userId}")
-    public UserDto getUserById(@PathVariable(value = "userId") long userId) {
+    public UserDto getUserById(@PathVariable(value = "userId") long userId,
+                               WebRequest request) {
         log.info("Received request to get existed user with id {}.", userId);
 
-        return userService.getUserDtoById(userId);
+        return userService.getUserDtoById(userId, request::checkNotModified);
     }
 
     @GetMapping
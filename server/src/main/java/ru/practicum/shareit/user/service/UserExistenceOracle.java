@@ -0,0 +1,28 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exceptions.model.NotFoundException;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+
+@Component
+@RequiredArgsConstructor
+public class UserExistenceOracle {
+    private final UserRepository userRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    // a cached user is known to exist, otherwise a primary-key-only count is enough to find out
+    public boolean exists(long userId) {
+        return entityManagerFactory.getCache().contains(User.class, userId)
+                || userRepository.existsById(userId);
+    }
+
+    public void checkExists(long userId) {
+        if (!exists(userId)) {
+            throw new NotFoundException("User with id " + userId + " does not present in repository.");
+        }
+    }
+}
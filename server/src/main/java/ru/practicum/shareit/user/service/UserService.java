@@ -1,17 +1,24 @@
 package ru.practicum.shareit.user.service;
 
+import ru.practicum.shareit.imports.ImportReport;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.dto.UserDto;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.function.Predicate;
 
 public interface UserService {
     UserDto addUser(UserDto userDto);
 
+    ImportReport importUsers(InputStream ndjson);
+
     UserDto updateUser(long userId, UserDto userDto);
 
     UserDto getUserDtoById(long userId);
 
+    UserDto getUserDtoById(long userId, Predicate<String> notModified);
+
     User getUserById(long userId);
 
     List<UserDto> getAllUsers();
@@ -1,24 +1,44 @@
 package ru.practicum.shareit.user.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.etag.EntityTags;
+import ru.practicum.shareit.booking.availability.BookingAvailability;
 import ru.practicum.shareit.exceptions.model.NotFoundException;
+import ru.practicum.shareit.imports.ImportReport;
+import ru.practicum.shareit.imports.NdjsonImporter;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.dto.UserDto;
 import ru.practicum.shareit.user.service.utils.UserServiceUtils;
 
+import javax.persistence.EntityManagerFactory;
 import javax.transaction.Transactional;
+import java.io.InputStream;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "shareit.service", percentiles = {0.5, 0.95, 0.99})
 @RequiredArgsConstructor
 @Slf4j
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserServiceUtils utils;
+    private final ItemSearchEngine searchEngine;
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserExistenceOracle existenceOracle;
+    private final BookingAvailability bookingAvailability;
+    private final NdjsonImporter importer;
 
     @Override
     @Transactional
@@ -32,6 +52,14 @@ public class UserServiceImpl implements UserService {
         return utils.convertToDto(userRepository.save(user));
     }
 
+    // not transactional: the importer commits every chunk on its own
+    @Override
+    public ImportReport importUsers(InputStream ndjson) {
+        log.info("Sending to DAO imported users.");
+
+        return importer.importRows(ndjson, UserDto.class, this::checkImportedUsers, this::saveImportedUsers);
+    }
+
     @Override
     @Transactional
     public UserDto updateUser(long userId, UserDto userDto) {
@@ -60,10 +88,19 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public UserDto getUserDtoById(long userId) {
-        log.info("Sending to DAO request to get user with id {}.", userId);
+        return getUserDtoById(userId, etag -> false);
+    }
 
-        return utils.convertToDto(getUserById(userId));
+    @Override
+    @Transactional
+    public UserDto getUserDtoById(long userId, Predicate<String> notModified) {
+        log.info("Sending to DAO request to get user with id {}.", userId);
 
+        User user = getUserById(userId);
+        if (notModified.test(EntityTags.of(user.getId(), user.getVersion()))) {
+            return null;
+        }
+        return utils.convertToDto(user);
     }
 
     @Override
@@ -76,7 +113,7 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public void checkIsUserPresent(long userId) {
-        getUserById(userId);
+        existenceOracle.checkExists(userId);
     }
 
     @Override
@@ -87,5 +124,29 @@ public class UserServiceImpl implements UserService {
         log.info("Sending to DAO request to delete user with id {}.", userId);
 
         userRepository.deleteById(userId);
+        searchEngine.onOwnerDeleted(userId);
+        // owned items are removed by the owner_id cascade, which the second-level cache does not see
+        TransactionCallbacks.afterCommit(() -> entityManagerFactory.getCache().evict(Item.class));
+        TransactionCallbacks.afterCommit(bookingAvailability::evictAll);
+    }
+
+    private List<String> checkImportedUsers(List<UserDto> userDtos) {
+        List<String> emails = userDtos.stream()
+                .map(UserDto::getEmail)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        Set<String> takenEmails = emails.isEmpty() ? new HashSet<>() : new HashSet<>(userRepository.findEmailsIn(emails));
+        return userDtos.stream()
+                .map(userDto -> utils.checkImportedUser(userDto, takenEmails))
+                .collect(Collectors.toList());
+    }
+
+    private List<Long> saveImportedUsers(List<UserDto> userDtos) {
+        List<User> users = userDtos.stream()
+                .map(utils::convertToImportedUser)
+                .collect(Collectors.toList());
+        return userRepository.saveAll(users).stream()
+                .map(User::getId)
+                .collect(Collectors.toList());
     }
 }
@@ -1,13 +1,21 @@
 package ru.practicum.shareit.user.service.utils;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.exceptions.model.ValidationException;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.dto.UserDto;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.Set;
+
 @Component
+@RequiredArgsConstructor
 public class UserServiceUtils {
+    private final Validator validator;
+
     public void checkIsUserValid(UserDto userDto) {
         if (userDto.getName() == null || userDto.getName().isBlank()) {
             throw new ValidationException("Name is blank");
@@ -20,11 +28,35 @@ public class UserServiceUtils {
         }
     }
 
+    // null when the row can be imported; its email is taken from then on
+    public String checkImportedUser(UserDto userDto, Set<String> takenEmails) {
+        try {
+            checkIsUserValid(userDto);
+        } catch (ValidationException e) {
+            return e.getReason();
+        }
+        Set<ConstraintViolation<User>> violations = validator.validate(convertToUser(userDto));
+        if (!violations.isEmpty()) {
+            ConstraintViolation<User> violation = violations.iterator().next();
+            return violation.getPropertyPath() + " " + violation.getMessage();
+        }
+        if (!takenEmails.add(userDto.getEmail())) {
+            return "Email " + userDto.getEmail() + " is already used.";
+        }
+        return null;
+    }
 
     public User convertToUser(UserDto userDto) {
         return UserMapper.convertToUser(userDto);
     }
 
+    // ids in imported rows are ignored, the sequence hands out new ones
+    public User convertToImportedUser(UserDto userDto) {
+        User user = convertToUser(userDto);
+        user.setId(0);
+        return user;
+    }
+
     public UserDto convertToDto(User user) {
         return UserMapper.convertToDto(user);
     }
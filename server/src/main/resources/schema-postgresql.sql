@@ -0,0 +1,15 @@
+-- PostgreSQL specific part of the schema, runs after schema.sql
+
+-- indexes, v1 ----------
+-- next approved booking of an item (status 1 is Status.APPROVED)
+CREATE INDEX IF NOT EXISTS bookings_item_start_approved_idx ON bookings (item_id, rental_start) WHERE status = 1;
+-- substring search over available items (/items/search), see PostgresItemSearchEngine
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS items_name_trgm_idx ON items USING gin (name gin_trgm_ops) WHERE is_available;
+CREATE INDEX IF NOT EXISTS items_description_trgm_idx ON items USING gin (description gin_trgm_ops) WHERE is_available;
+
+-- constraints, v1 ----------
+-- approved bookings of one item never overlap in time, the durable side of BookingAvailability
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+ALTER TABLE bookings ADD CONSTRAINT bookings_approved_no_overlap
+    EXCLUDE USING gist (item_id WITH =, tsrange(rental_start, rental_end) WITH &&) WHERE (status = 1);
@@ -3,42 +3,80 @@ DROP TABLE IF EXISTS requests CASCADE ;
 DROP TABLE IF EXISTS items CASCADE;
 DROP TABLE IF EXISTS bookings;
 DROP TABLE IF EXISTS comments;
+DROP SEQUENCE IF EXISTS users_seq;
+DROP SEQUENCE IF EXISTS items_seq;
+
+-- ids of users and items are handed out by Hibernate in blocks of 50 (allocationSize), so their inserts can batch
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
 
 CREATE TABLE IF NOT EXISTS users
 (
-    id integer generated by default as identity primary key,
+    id integer primary key,
     name varchar(50) not null,
     email varchar(50) not null,
+    version bigint default 0 not null,
     constraint user_email unique(email)
 );
 CREATE TABLE IF NOT EXISTS requests (
     id integer generated by default as identity primary key,
-    publisher integer references users (id) on delete cascade,
+    publisher integer,
     description varchar(1000) not null,
-    creation_date timestamp
+    creation_date timestamp,
+    version bigint default 0 not null
 );
 CREATE TABLE IF NOT EXISTS items
 (
-    id integer generated by default as identity primary key, name varchar(50) not null,
+    id integer primary key, name varchar(50) not null,
     description varchar(200) not null,
     is_available boolean default true not null,
-    owner_id integer references users(id) on delete cascade,
-    request integer null
+    owner_id integer,
+    request integer null,
+    version bigint default 0 not null
 );
 CREATE TABLE IF NOT EXISTS bookings(
     id integer generated by default as identity primary key,
     rental_start timestamp without time zone not null,
     rental_end timestamp without time zone not null,
-    booker_id integer references users(id) not null,
-    item_id integer references items(id) on delete cascade not null,
-    status integer
+    booker_id integer not null,
+    item_id integer not null,
+    status integer,
+    version bigint default 0 not null
 );
 CREATE TABLE IF NOT EXISTS comments (
     id integer generated by default as identity primary key,
-    item_id integer references items (id) on delete cascade,
-    author_id integer references users (id) on delete cascade,
+    item_id integer,
+    author_id integer,
     comment_text varchar(500),
     creation_date timestamp
 );
 
+-- indexes, v1 ----------
+-- bookings of a booker (BookingSearchRepository, role BOOKER), newest first
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, rental_start DESC, id DESC);
+-- bookings of owner's items are joined through items, last booking lookups by item
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, rental_start);
+-- has the booker rented the item (comment check)
+CREATE INDEX IF NOT EXISTS bookings_booker_item_idx ON bookings (booker_id, item_id, status, rental_start);
+-- owner's items listing and keyset pagination by id
+CREATE INDEX IF NOT EXISTS items_owner_idx ON items (owner_id, id);
+-- items created in answer to requests
+CREATE INDEX IF NOT EXISTS items_request_idx ON items (request);
+-- comments of listed items
+CREATE INDEX IF NOT EXISTS comments_item_idx ON comments (item_id, id);
+-- comments are removed together with their author
+CREATE INDEX IF NOT EXISTS comments_author_idx ON comments (author_id);
+-- requests of one publisher
+CREATE INDEX IF NOT EXISTS requests_publisher_created_idx ON requests (publisher, creation_date);
+-- other users' requests feed, newest first
+CREATE INDEX IF NOT EXISTS requests_created_idx ON requests (creation_date DESC, id DESC);
 
+-- foreign keys, v1 ----------
+-- declared after the indexes: H2 backs a foreign key with an index that starts with its columns, and only creates
+-- one of its own when there is none yet, which it would then prefer over the ones above
+ALTER TABLE requests ADD CONSTRAINT requests_publisher_fk FOREIGN KEY (publisher) REFERENCES users (id) ON DELETE CASCADE;
+ALTER TABLE items ADD CONSTRAINT items_owner_fk FOREIGN KEY (owner_id) REFERENCES users (id) ON DELETE CASCADE;
+ALTER TABLE bookings ADD CONSTRAINT bookings_booker_fk FOREIGN KEY (booker_id) REFERENCES users (id);
+ALTER TABLE bookings ADD CONSTRAINT bookings_item_fk FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE;
+ALTER TABLE comments ADD CONSTRAINT comments_item_fk FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE;
+ALTER TABLE comments ADD CONSTRAINT comments_author_fk FOREIGN KEY (author_id) REFERENCES users (id) ON DELETE CASCADE;
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.booking;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.pagination.SliceResponse;
+import ru.practicum.shareit.user.model.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// bookings sharing a start are told apart by id, so walking the cursor neither skips nor repeats any of them
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookingCursorPagesTest {
+    private static final String USER_ID = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void cursorWalksBookingsWithEqualStarts() throws Exception {
+        long owner = addUser("owner");
+        long booker = addUser("booker");
+        LocalDateTime start = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 5; i++) {
+            addBooking(booker, addItem(owner), start);
+        }
+        long item = addItem(owner);
+        addBooking(booker, item, start.minusDays(5));
+        addBooking(booker, item, start.plusDays(5));
+
+        for (String path : List.of("/bookings", "/bookings/owner")) {
+            long user = path.equals("/bookings") ? booker : owner;
+            List<Integer> all = ids(mockMvc.perform(get(path).header(USER_ID, user)).andReturn().getResponse());
+            assertThat(all).hasSize(7);
+
+            for (int size = 1; size <= 3; size++) {
+                assertThat(walk(path, user, size)).as("%s by %d", path, size).isEqualTo(all);
+            }
+        }
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() throws Exception {
+        long booker = addUser("booker");
+
+        mockMvc.perform(get("/bookings").header(USER_ID, booker).param("after", "not a cursor").param("size", "2"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/bookings").header(USER_ID, booker).param("after", PageCursor.of(5).encode())
+                        .param("size", "2"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<Integer> walk(String path, long user, int size) throws Exception {
+        MockHttpServletResponse page = mockMvc.perform(get(path).header(USER_ID, user)
+                        .param("from", "0").param("size", String.valueOf(size)))
+                .andReturn().getResponse();
+        List<Integer> walked = new ArrayList<>(ids(page));
+        while (page.getHeader(SliceResponse.NEXT_CURSOR_HEADER) != null) {
+            page = mockMvc.perform(get(path).header(USER_ID, user)
+                            .param("after", page.getHeader(SliceResponse.NEXT_CURSOR_HEADER))
+                            .param("size", String.valueOf(size)))
+                    .andReturn().getResponse();
+            assertThat(page.getStatus()).isEqualTo(200);
+            walked.addAll(ids(page));
+        }
+        return walked;
+    }
+
+    private static List<Integer> ids(MockHttpServletResponse response) throws Exception {
+        return JsonPath.read(response.getContentAsString(), "$[*].id");
+    }
+
+    private long addUser(String name) {
+        String email = name + System.nanoTime() + "@x.ru";
+        return userService.addUser(UserDto.builder().name(name).email(email).build()).getId();
+    }
+
+    private long addItem(long owner) {
+        return itemService.addItem(owner, ItemDto.builder().name("item").description("item").available(true).build())
+                .getId();
+    }
+
+    private void addBooking(long booker, long item, LocalDateTime start) {
+        bookingService.createBooking(booker, BookingDto.builder().itemId(item).start(start).end(start.plusDays(1))
+                .build());
+    }
+}
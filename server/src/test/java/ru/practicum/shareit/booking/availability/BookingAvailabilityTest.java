@@ -0,0 +1,72 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.model.AlreadyUsedException;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// a booking saved straight into the database stands for one made through another server instance
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingAvailabilityTest {
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.SECONDS);
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void bookingOfAnotherInstanceIsSeenByTheNextBooking() {
+        long owner = addUser("owner");
+        long booker = addUser("booker");
+        long item = itemService.addItem(owner, ItemDto.builder().name("item").description("item").available(true)
+                .build()).getId();
+        bookingService.createBooking(booker, booking(item, START.plusDays(5)));
+
+        Booking elsewhere = new Booking();
+        elsewhere.setItem(itemRepository.findById(item).orElseThrow());
+        elsewhere.setBooker(userRepository.findById(booker).orElseThrow());
+        elsewhere.setStart(START);
+        elsewhere.setEnd(START.plusDays(1));
+        elsewhere.setStatus(Status.APPROVED);
+        bookingRepository.save(elsewhere);
+
+        assertThatThrownBy(() -> bookingService.createBooking(booker, booking(item, START)))
+                .isInstanceOf(AlreadyUsedException.class);
+    }
+
+    private long addUser(String name) {
+        String email = name + System.nanoTime() + "@x.ru";
+        return userService.addUser(UserDto.builder().name(name).email(email).build()).getId();
+    }
+
+    private static BookingDto booking(long item, LocalDateTime start) {
+        return BookingDto.builder().itemId(item).start(start).end(start.plusDays(1)).build();
+    }
+}
@@ -0,0 +1,142 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntervalTreeTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private final IntervalTree tree = new IntervalTree();
+
+    @Test
+    void ascendingInsertsStayBalanced() {
+        for (int i = 0; i < 1000; i++) {
+            tree.insert(i, at(i), at(i + 1));
+            assertThat(tree.checkInvariants()).isEqualTo(i + 1);
+        }
+    }
+
+    @Test
+    void maxEndFollowsRemovalOfTheLongestInterval() {
+        tree.insert(1, at(0), at(100));
+        for (int i = 2; i < 50; i++) {
+            tree.insert(i, at(i), at(i + 1));
+        }
+        assertThat(tree.overlaps(at(60), at(70))).isTrue();
+
+        tree.remove(1, at(0));
+
+        assertThat(tree.checkInvariants()).isEqualTo(48);
+        assertThat(tree.overlaps(at(60), at(70))).isFalse();
+        assertThat(tree.overlaps(at(49), at(50))).isTrue();
+    }
+
+    @Test
+    void removeOfTwoChildNodeKeepsOrderAndMaxEnd() {
+        for (int i = 0; i < 31; i++) {
+            tree.insert(i, at(i * 2), at(i * 2 + (i % 5 == 0 ? 40 : 1)));
+        }
+
+        for (int i = 0; i < 31; i += 3) {
+            tree.remove(i, at(i * 2));
+            tree.checkInvariants();
+        }
+
+        assertThat(tree.checkInvariants()).isEqualTo(20);
+    }
+
+    @Test
+    void reinsertOfSameIntervalReplacesItsEnd() {
+        tree.insert(1, at(0), at(10));
+
+        tree.insert(1, at(0), at(2));
+
+        assertThat(tree.checkInvariants()).isEqualTo(1);
+        assertThat(tree.overlaps(at(5), at(6))).isFalse();
+    }
+
+    @Test
+    void removeOfMissingIntervalChangesNothing() {
+        tree.insert(1, at(0), at(10));
+
+        tree.remove(2, at(0));
+        tree.remove(1, at(1));
+
+        assertThat(tree.checkInvariants()).isEqualTo(1);
+    }
+
+    @Test
+    void intervalsAreHalfOpen() {
+        tree.insert(1, at(10), at(20));
+
+        assertThat(tree.overlaps(at(0), at(10))).isFalse();
+        assertThat(tree.overlaps(at(20), at(30))).isFalse();
+        assertThat(tree.overlaps(at(0), at(11))).isTrue();
+        assertThat(tree.overlaps(at(19), at(30))).isTrue();
+        assertThat(tree.overlaps(at(12), at(13))).isTrue();
+        assertThat(tree.overlaps(at(0), at(30))).isTrue();
+    }
+
+    @Test
+    void equalStartsAreKeptApartById() {
+        tree.insert(1, at(10), at(11));
+        tree.insert(2, at(10), at(30));
+
+        tree.remove(2, at(10));
+
+        assertThat(tree.checkInvariants()).isEqualTo(1);
+        assertThat(tree.overlaps(at(20), at(21))).isFalse();
+        assertThat(tree.overlaps(at(10), at(11))).isTrue();
+    }
+
+    @Test
+    void forEachOverlappingVisitsOnlyOverlapsInStartOrder() {
+        tree.insert(1, at(30), at(40));
+        tree.insert(2, at(0), at(10));
+        tree.insert(3, at(5), at(35));
+        tree.insert(4, at(40), at(50));
+        tree.insert(5, at(12), at(14));
+        List<LocalDateTime> starts = new ArrayList<>();
+
+        tree.forEachOverlapping(at(10), at(40), (start, end) -> starts.add(start));
+
+        assertThat(starts).containsExactly(at(5), at(12), at(30));
+    }
+
+    @Test
+    void randomChangesMatchPlainList() {
+        Random random = new Random(42);
+        Map<Long, LocalDateTime[]> intervals = new HashMap<>();
+        for (int step = 0; step < 5000; step++) {
+            long id = random.nextInt(300);
+            LocalDateTime[] present = intervals.get(id);
+            if (present != null && random.nextBoolean()) {
+                tree.remove(id, present[0]);
+                intervals.remove(id);
+            } else if (present == null) {
+                LocalDateTime start = at(random.nextInt(1000));
+                LocalDateTime end = start.plusHours(1 + random.nextInt(random.nextInt(10) == 0 ? 200 : 10));
+                tree.insert(id, start, end);
+                intervals.put(id, new LocalDateTime[]{start, end});
+            }
+            LocalDateTime start = at(random.nextInt(1000));
+            LocalDateTime end = start.plusHours(1 + random.nextInt(20));
+            boolean expected = intervals.values().stream()
+                    .anyMatch(interval -> interval[0].isBefore(end) && start.isBefore(interval[1]));
+            assertThat(tree.overlaps(start, end)).isEqualTo(expected);
+            assertThat(tree.checkInvariants()).isEqualTo(intervals.size());
+        }
+    }
+
+    private static LocalDateTime at(int hours) {
+        return DAY.plusHours(hours);
+    }
+}
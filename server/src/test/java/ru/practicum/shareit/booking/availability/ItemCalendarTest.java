@@ -0,0 +1,107 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.model.dto.FreePeriod;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemCalendarTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private final ItemCalendar calendar = new ItemCalendar();
+
+    @Test
+    void emptyCalendarIsFreeForWholeRange() {
+        assertThat(calendar.freePeriods(at(0), at(10))).containsExactly(period(0, 10));
+    }
+
+    @Test
+    void bookingsStraddlingRangeCutItsEdges() {
+        approve(1, -5, 2);
+        approve(2, 8, 15);
+
+        assertThat(calendar.freePeriods(at(0), at(10))).containsExactly(period(2, 8));
+    }
+
+    @Test
+    void bookingCoveringWholeRangeLeavesNothingFree() {
+        approve(1, -5, 15);
+
+        assertThat(calendar.freePeriods(at(0), at(10))).isEmpty();
+    }
+
+    @Test
+    void bookingsTouchingRangeEdgesDoNotTakeIt() {
+        approve(1, -5, 0);
+        approve(2, 10, 15);
+
+        assertThat(calendar.freePeriods(at(0), at(10))).containsExactly(period(0, 10));
+        assertThat(calendar.isFree(at(0), at(10))).isTrue();
+    }
+
+    @Test
+    void adjacentAndNestedBookingsMergeIntoOneTakenPeriod() {
+        approve(1, 1, 3);
+        approve(2, 3, 6);
+        approve(3, 4, 5);
+        approve(4, 8, 9);
+
+        assertThat(calendar.freePeriods(at(0), at(10)))
+                .containsExactly(period(0, 1), period(6, 8), period(9, 10));
+    }
+
+    @Test
+    void longBookingHidingShorterOnesIsSweptOnce() {
+        approve(1, 1, 9);
+        approve(2, 2, 3);
+        approve(3, 5, 6);
+
+        assertThat(calendar.freePeriods(at(0), at(10))).containsExactly(period(0, 1), period(9, 10));
+    }
+
+    @Test
+    void waitingAndRejectedBookingsDoNotTakeTime() {
+        calendar.put(1, new Slot(at(2), at(4), Status.WAITING));
+        calendar.put(2, new Slot(at(5), at(7), Status.REJECTED));
+
+        assertThat(calendar.isFree(at(0), at(10))).isTrue();
+        assertThat(calendar.freePeriods(at(0), at(10))).containsExactly(period(0, 10));
+        assertThat(calendar.get(2)).isNull();
+    }
+
+    @Test
+    void approvalMovesBookingOutOfWaiting() {
+        calendar.put(1, new Slot(at(2), at(4), Status.WAITING));
+
+        approve(1, 2, 4);
+
+        assertThat(calendar.isFree(at(3), at(5))).isFalse();
+        assertThat(calendar.get(1).getStatus()).isEqualTo(Status.APPROVED);
+    }
+
+    @Test
+    void rejectionOrNullSlotFreesTime() {
+        approve(1, 2, 4);
+        approve(2, 6, 8);
+
+        calendar.put(1, new Slot(at(2), at(4), Status.REJECTED));
+        calendar.put(2, null);
+
+        assertThat(calendar.freePeriods(at(0), at(10))).containsExactly(period(0, 10));
+    }
+
+    private void approve(long bookingId, int start, int end) {
+        calendar.put(bookingId, new Slot(at(start), at(end), Status.APPROVED));
+    }
+
+    private static FreePeriod period(int start, int end) {
+        return FreePeriod.builder().start(at(start)).end(at(end)).build();
+    }
+
+    private static LocalDateTime at(int hours) {
+        return DAY.plusHours(hours);
+    }
+}
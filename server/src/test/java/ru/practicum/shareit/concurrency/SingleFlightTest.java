@@ -0,0 +1,151 @@
+package ru.practicum.shareit.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exceptions.model.NotFoundException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight singleFlight = new SingleFlight(meterRegistry);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void stopThreads() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void waiterGetsLeaderResultWithoutLoading() throws Exception {
+        Future<String> leader = executor.submit(() -> singleFlight.execute("items", 1L, this::blockingLoad));
+        awaitLoads(1);
+        Future<String> waiter = executor.submit(() -> singleFlight.execute("items", 1L, this::blockingLoad));
+        awaitCalls("coalesced", 1);
+
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("value 1");
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isEqualTo("value 1");
+        assertThat(loads).hasValue(1);
+        assertThat(calls("leader")).isEqualTo(1);
+    }
+
+    @Test
+    void differentKeysDoNotWaitForEachOther() {
+        executor.submit(() -> singleFlight.execute("items", 1L, this::blockingLoad));
+        awaitLoads(1);
+
+        assertThat(singleFlight.execute("items", 2L, () -> "other")).isEqualTo("other");
+        assertThat(singleFlight.execute("requests", 1L, () -> "other name")).isEqualTo("other name");
+    }
+
+    @Test
+    void waiterGetsLeaderException() throws Exception {
+        NotFoundException notFound = new NotFoundException("Item with id 1 does not present in repository.");
+        Future<String> leader = executor.submit(() -> singleFlight.execute("items", 1L, () -> {
+            blockingLoad();
+            throw notFound;
+        }));
+        awaitLoads(1);
+        Future<Throwable> waiter = executor.submit(() -> {
+            try {
+                singleFlight.execute("items", 1L, this::blockingLoad);
+                return null;
+            } catch (RuntimeException e) {
+                return e;
+            }
+        });
+        awaitCalls("coalesced", 1);
+
+        release.countDown();
+
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isSameAs(notFound);
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCause(notFound);
+    }
+
+    @Test
+    void finishedFlightIsRemoved() {
+        release.countDown();
+
+        singleFlight.execute("items", 1L, this::blockingLoad);
+        singleFlight.execute("items", 1L, this::blockingLoad);
+
+        assertThat(loads).hasValue(2);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void failedFlightIsRemoved() {
+        assertThatThrownBy(() -> singleFlight.execute("items", 1L, () -> {
+            throw new IllegalStateException("broken");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.execute("items", 1L, () -> "value")).isEqualTo("value");
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void forgottenFlightIsNotJoined() throws Exception {
+        Future<String> before = executor.submit(() -> singleFlight.execute("items", 1L, this::blockingLoad));
+        awaitLoads(1);
+
+        singleFlight.forgetAfterCommit("items", 1L);
+        Future<String> after = executor.submit(() -> singleFlight.execute("items", 1L, this::blockingLoad));
+        awaitLoads(2);
+        release.countDown();
+
+        assertThat(before.get(5, TimeUnit.SECONDS)).isEqualTo("value 1");
+        assertThat(after.get(5, TimeUnit.SECONDS)).isEqualTo("value 2");
+        assertThat(calls("coalesced")).isZero();
+        assertThat(inFlight()).isZero();
+    }
+
+    private String blockingLoad() {
+        int load = loads.incrementAndGet();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "value " + load;
+    }
+
+    private void awaitLoads(int count) {
+        waitUntil(() -> loads.get() == count);
+    }
+
+    private void awaitCalls(String role, int count) {
+        waitUntil(() -> calls(role) == count);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("waited too long").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    private double calls(String role) {
+        return meterRegistry.counter("shareit.singleflight.calls", "name", "items", "role", role).count();
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("shareit.singleflight.in-flight").gauge().value();
+    }
+}
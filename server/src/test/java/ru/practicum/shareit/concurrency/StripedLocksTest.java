@@ -0,0 +1,164 @@
+package ru.practicum.shareit.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exceptions.model.AlreadyUsedException;
+import ru.practicum.shareit.transaction.NoOpTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StripedLocksTest {
+    private static final String NAME = "item";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StripedLocks locks = new StripedLocks(meterRegistry, 16, Duration.ofMillis(100));
+    private final TransactionTemplate transaction = new TransactionTemplate(new NoOpTransactionManager());
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void stopThreads() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void lockOutsideOfTransactionIsRejected() {
+        assertThatThrownBy(() -> locks.lockUntilCompletion(NAME, 1L))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void lockIsHeldUntilCommit() throws Exception {
+        Future<?> holder = hold(List.of(1L), false);
+
+        assertThatThrownBy(() -> lockInOtherThread(List.of(1L)))
+                .hasCauseInstanceOf(AlreadyUsedException.class);
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        lockInOtherThread(List.of(1L));
+    }
+
+    @Test
+    void lockIsReleasedAfterRollback() throws Exception {
+        Future<?> holder = hold(List.of(1L), true);
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+
+        lockInOtherThread(List.of(1L));
+
+        assertThat(counter("shareit.lock.contended")).isZero();
+    }
+
+    @Test
+    void timeoutIsConflict() throws Exception {
+        hold(List.of(1L), false);
+
+        assertThatThrownBy(() -> transaction.executeWithoutResult(status -> locks.lockUntilCompletion(NAME, 1L)))
+                .isInstanceOfSatisfying(AlreadyUsedException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT));
+        assertThat(counter("shareit.lock.contended")).isEqualTo(1);
+        assertThat(counter("shareit.lock.timeouts")).isEqualTo(1);
+    }
+
+    @Test
+    void keysInAnyOrderDoNotDeadlock() throws Exception {
+        StripedLocks patientLocks = new StripedLocks(meterRegistry, 16, Duration.ofSeconds(5));
+        assertDifferentStripes(1L, 2L);
+        CountDownLatch start = new CountDownLatch(1);
+        Future<?> forward = executor.submit(() -> lockRepeatedly(patientLocks, List.of(1L, 2L), start));
+        Future<?> backward = executor.submit(() -> lockRepeatedly(patientLocks, List.of(2L, 1L), start));
+
+        start.countDown();
+        forward.get(30, TimeUnit.SECONDS);
+        backward.get(30, TimeUnit.SECONDS);
+
+        assertThat(counter("shareit.lock.timeouts")).isZero();
+    }
+
+    // one of the two runs takes the free stripe first and must give it back when the other one times out
+    @Test
+    void partlyTakenLocksAreReleasedOnFailure() throws Exception {
+        assertDifferentStripes(1L, 2L);
+        for (long busy : List.of(1L, 2L)) {
+            long free = busy == 1L ? 2L : 1L;
+            CountDownLatch done = new CountDownLatch(1);
+            Future<?> holder = hold(List.of(busy), false, done);
+
+            assertThatThrownBy(() -> lockInOtherThread(List.of(1L, 2L)))
+                    .hasCauseInstanceOf(AlreadyUsedException.class);
+            lockInOtherThread(List.of(free));
+
+            done.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private Future<?> hold(List<Long> keys, boolean rollback) throws Exception {
+        return hold(keys, rollback, release);
+    }
+
+    private Future<?> hold(List<Long> keys, boolean rollback, CountDownLatch release) throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        Future<?> holder = executor.submit(() -> transaction.executeWithoutResult(status -> {
+            locks.lockAllUntilCompletion(NAME, keys);
+            locked.countDown();
+            awaitQuietly(release);
+            if (rollback) {
+                status.setRollbackOnly();
+            }
+        }));
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+        return holder;
+    }
+
+    private void assertDifferentStripes(long first, long second) throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        Future<?> holder = hold(List.of(first), false, done);
+        lockInOtherThread(List.of(second));
+        done.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+    }
+
+    // a fresh thread every time: a pooled one could still own a leaked lock and simply re-enter it
+    private void lockInOtherThread(List<Long> keys) throws Exception {
+        FutureTask<Void> attempt = new FutureTask<>(
+                () -> transaction.executeWithoutResult(status -> locks.lockAllUntilCompletion(NAME, keys)), null);
+        new Thread(attempt).start();
+        attempt.get(5, TimeUnit.SECONDS);
+    }
+
+    private void lockRepeatedly(StripedLocks patientLocks, List<Long> keys, CountDownLatch start) {
+        awaitQuietly(start);
+        for (int i = 0; i < 2_000; i++) {
+            transaction.executeWithoutResult(status -> patientLocks.lockAllUntilCompletion(NAME, keys));
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double counter(String metric) {
+        return meterRegistry.counter(metric, "name", NAME).count();
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.imports;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = "shareit.import.chunk-size=3")
+@ActiveProfiles("test")
+class NdjsonImporterTest {
+    private static final String TOO_LONG_NAME = "x".repeat(60);
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private NdjsonImporter importer;
+
+    // chunks of three valid-looking rows: lines 1, 3, 4 | 5, 6, 7 | 9
+    @Test
+    void badRowsCostOnlyTheirOwnResults() {
+        String ndjson = String.join("\n",
+                "{\"name\":\"a\",\"email\":\"a@x.ru\"}",
+                "{\"name\":",
+                "{\"name\":\"b\",\"email\":\"b@x.ru\"}",
+                "{\"name\":\"c\",\"email\":\"a@x.ru\"}",
+                "{\"name\":\"d\",\"email\":\"b@x.ru\"}",
+                "{\"name\":\"" + TOO_LONG_NAME + "\",\"email\":\"long@x.ru\"}",
+                "{\"name\":\"e\",\"email\":\"e@x.ru\"}",
+                "",
+                "{\"name\":\"f\",\"email\":\"f@x.ru\"}");
+
+        ImportReport report = userService.importUsers(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(report.getImported()).isEqualTo(4);
+        assertThat(report.getFailed()).isEqualTo(4);
+        assertThat(report.getFailures()).extracting(ImportRowResult::getLine).containsExactly(2L, 4L, 5L, 6L);
+        assertThat(report.getFailures().get(0).getError()).startsWith("Malformed JSON row");
+        // the duplicate within the first chunk is caught by the check
+        assertThat(report.getFailures().get(1).getError()).isEqualTo("Email a@x.ru is already used.");
+        // the first chunk is committed before the second one is checked
+        assertThat(report.getFailures().get(2).getError()).isEqualTo("Email b@x.ru is already used.");
+        // the database refuses the second chunk, its rows are written one by one
+        assertThat(report.getFailures().get(3).getError()).isEqualTo("Row violates database constraints.");
+        assertThat(report.getChunks()).extracting(ImportChunkResult::getFirstLine, ImportChunkResult::getLastLine)
+                .containsExactly(tuple(1L, 4L), tuple(5L, 7L), tuple(9L, 9L));
+        assertThat(report.getChunks()).extracting(chunk -> chunk.getIds().size()).containsExactly(2, 1, 1);
+
+        assertThat(userRepository.findAll().stream().map(User::getEmail).collect(Collectors.toList()))
+                .containsExactlyInAnyOrder("a@x.ru", "b@x.ru", "e@x.ru", "f@x.ru");
+        assertThat(report.getChunks().stream().flatMap(chunk -> chunk.getIds().stream())
+                .collect(Collectors.toList()))
+                .containsExactlyElementsOf(userRepository.findAll(Sort.by("id")).stream().map(User::getId)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    void failureOtherThanConstraintsEndsTheImport() {
+        String ndjson = "{\"name\":\"a\",\"email\":\"a@x.ru\"}\n{\"name\":\"b\",\"email\":\"b@x.ru\"}";
+        AtomicInteger saves = new AtomicInteger();
+
+        assertThatThrownBy(() -> importer.importRows(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)),
+                UserDto.class, users -> Collections.nCopies(users.size(), null), users -> {
+                    saves.incrementAndGet();
+                    throw new IllegalStateException("broken save");
+                }))
+                .isInstanceOf(IllegalStateException.class);
+        // not retried row by row
+        assertThat(saves).hasValue(1);
+    }
+}
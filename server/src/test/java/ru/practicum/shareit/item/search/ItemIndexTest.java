@@ -0,0 +1,71 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the memory gauge is counted along with the changes. A posting list is 16 bytes plus 8 per reserved id, it starts
+// with room for 4 ids and doubles; every indexed character and every trigram key takes 2 bytes
+class ItemIndexTest {
+    private static final long EMPTY_LIST = 16 + 8 * 4;
+
+    private final ItemIndex index = new ItemIndex();
+
+    @Test
+    void emptyIndexHoldsOnlyTheListOfAllIds() {
+        assertThat(index.memoryBytes()).isEqualTo(EMPTY_LIST);
+    }
+
+    @Test
+    void growingPostingListsAreCounted() {
+        for (long id = 1; id <= 4; id++) {
+            index.put(id, 10, "abc", "abc", true);
+        }
+        // the ids list, one trigram with its list, and 6 characters per item
+        assertThat(index.memoryBytes()).isEqualTo(EMPTY_LIST + 2 * 3 + EMPTY_LIST + 4 * 2 * 6);
+
+        index.put(5, 10, "abc", "abc", true);
+
+        // both lists doubled to 8 ids
+        assertThat(index.memoryBytes()).isEqualTo(EMPTY_LIST + 2 * 3 + EMPTY_LIST + 5 * 2 * 6 + 2 * 8 * 4);
+    }
+
+    @Test
+    void updatedItemIsCountedOnce() {
+        index.put(1, 10, "Drill", "Cordless drill", true);
+        long bytes = index.memoryBytes();
+
+        index.put(1, 10, "Drill", "Cordless drill", false);
+
+        assertThat(index.memoryBytes()).isEqualTo(bytes);
+        // three more characters and three new trigrams, "ll ", "l x" and " xl", each with a list of one id
+        index.put(1, 10, "Drill xl", "Cordless drill", true);
+        assertThat(index.memoryBytes()).isEqualTo(bytes + 2 * 3 + 3 * (2 * 3 + EMPTY_LIST));
+    }
+
+    @Test
+    void removedItemsGiveTheirBytesBack() {
+        index.put(1, 10, "Drill", "Cordless drill", true);
+        long oneItem = index.memoryBytes();
+        index.put(2, 20, "Ladder", "Drill and ladder", true);
+        index.put(3, 20, "Saw", "Circular saw", true);
+
+        index.removeByOwner(20);
+
+        assertThat(index.memoryBytes()).isEqualTo(oneItem);
+        index.removeByOwner(10);
+        assertThat(index.memoryBytes()).isEqualTo(EMPTY_LIST);
+    }
+
+    @Test
+    void clearedIndexIsEmpty() {
+        for (long id = 1; id <= 4; id++) {
+            index.put(id, id, "Item " + id, "Description " + id, true);
+        }
+
+        index.clear();
+
+        assertThat(index.memoryBytes()).isEqualTo(EMPTY_LIST);
+        assertThat(index.documentCount()).isZero();
+    }
+}
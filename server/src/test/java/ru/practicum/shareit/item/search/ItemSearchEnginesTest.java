@@ -0,0 +1,100 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+import ru.practicum.shareit.user.model.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the in-memory index must find exactly what the database query finds, the services feed it as in production
+@SpringBootTest(properties = "shareit.search.engine=memory")
+@ActiveProfiles("test")
+class ItemSearchEnginesTest {
+    private static final List<String> QUERIES = List.of("", "d", "Dr", "dri", "DRILL", "drill ", "saw", "hand_saw",
+            "_", "%", "50%", "\\", "ill d", "for", "nothing like this");
+
+    @Autowired
+    private ItemSearchEngine memoryEngine;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+
+    private DatabaseItemSearchEngine databaseEngine;
+    private long owner;
+    private long otherOwner;
+
+    @BeforeEach
+    void setUp() {
+        databaseEngine = new DatabaseItemSearchEngine(itemRepository);
+        owner = addUser("owner");
+        otherOwner = addUser("other");
+    }
+
+    @Test
+    void enginesAgreeOnTheSameItems() {
+        assertThat(memoryEngine).isInstanceOf(InMemoryItemSearchEngine.class);
+        long drill = addItem(owner, "Drill", "Cordless, for walls");
+        addItem(owner, "hand_saw", "50% off, sharp");
+        long broken = addItem(otherOwner, "Broken drill", "not for use");
+        addItem(otherOwner, "Ladder", "Tall DRILL stand\\holder");
+        itemService.updateItem(otherOwner, ItemDto.builder().id(broken).available(false).build());
+        assertEnginesAgree();
+
+        itemService.updateItem(owner, ItemDto.builder().id(drill).name("Saw").description("was a drill").build());
+        itemService.updateItem(otherOwner, ItemDto.builder().id(broken).available(true).build());
+        assertEnginesAgree();
+
+        itemService.updateItem(otherOwner, ItemDto.builder().id(broken).available(false).build());
+        userService.deleteUser(owner);
+        assertEnginesAgree();
+        assertThat(ids(memoryEngine.search("saw"))).isEmpty();
+    }
+
+    private void assertEnginesAgree() {
+        for (String query : QUERIES) {
+            assertThat(ids(memoryEngine.search(query)))
+                    .as("search of \"%s\"", query)
+                    .isEqualTo(ids(databaseEngine.search(query)));
+            for (int from = 0; from < 4; from++) {
+                Slice<Item> memoryPage = memoryEngine.search(query, OffsetPageRequest.of(from, 2));
+                Slice<Item> databasePage = databaseEngine.search(query, OffsetPageRequest.of(from, 2));
+                assertThat(ids(memoryPage.getContent()))
+                        .as("page of \"%s\" from %d", query, from)
+                        .isEqualTo(ids(databasePage.getContent()));
+                assertThat(memoryPage.hasNext())
+                        .as("next page of \"%s\" from %d", query, from)
+                        .isEqualTo(databasePage.hasNext());
+            }
+        }
+    }
+
+    private long addUser(String name) {
+        String email = name + System.nanoTime() + "@x.ru";
+        return userService.addUser(UserDto.builder().name(name).email(email).build()).getId();
+    }
+
+    private long addItem(long ownerId, String name, String description) {
+        return itemService.addItem(ownerId, ItemDto.builder().name(name).description(description).available(true)
+                .build()).getId();
+    }
+
+    private static List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).collect(Collectors.toList());
+    }
+}
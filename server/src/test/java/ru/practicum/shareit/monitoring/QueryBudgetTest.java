@@ -0,0 +1,74 @@
+package ru.practicum.shareit.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the test profile makes the budget strict; two statements are less than any listing of items needs
+@SpringBootTest(properties = "shareit.query-budget.statements=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryBudgetTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void overBudgetRequestFails() throws Exception {
+        long ownerId = userService.addUser(UserDto.builder().name("owner").email("owner@x.ru").build()).getId();
+        for (int i = 0; i < 3; i++) {
+            itemService.addItem(ownerId, ItemDto.builder().name("item").description("item").available(true).build());
+        }
+
+        mockMvc.perform(get("/items").header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.message").value(startsWith("Query budget exceeded for GET /items")));
+    }
+
+    @Test
+    void exemptHandlerIsNotFailed() throws Exception {
+        String ndjson = "{\"name\":\"a\",\"email\":\"a@x.ru\"}\n{\"name\":\"b\",\"email\":\"b@x.ru\"}\n";
+
+        mockMvc.perform(post("/users/import").contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+
+        assertThat(meterRegistry.get("shareit.http.statements").tag("uri", "/users/import").summary().max())
+                .isGreaterThan(2);
+    }
+
+    // statements on H2 take microseconds, a stopwatch counting whole milliseconds would record a multiple of them
+    @Test
+    void dbTimeIsRecordedInNanoseconds() throws Exception {
+        mockMvc.perform(get("/users"))
+                .andExpect(status().isOk());
+
+        double nanos = meterRegistry.get("shareit.http.db.time").tag("uri", "/users").timer()
+                .totalTime(TimeUnit.NANOSECONDS);
+        assertThat(nanos).isPositive();
+        assertThat(nanos % 1_000_000).isNotZero();
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.pagination;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpStatus;
+import ru.practicum.shareit.exceptions.model.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest {
+    private static final LocalDateTime POSITION = LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123_456_000);
+
+    @Test
+    void cursorSurvivesEncoding() {
+        PageCursor cursor = PageCursor.of(POSITION, 42);
+
+        String encoded = cursor.encode();
+
+        assertThat(encoded).matches("[A-Za-z0-9_-]+");
+        assertThat(PageCursor.decode(encoded)).isEqualTo(cursor);
+        assertThat(PageCursor.decodeWithPosition(encoded)).isEqualTo(cursor);
+    }
+
+    @Test
+    void cursorWithoutPositionSurvivesEncoding() {
+        PageCursor cursor = PageCursor.of(Long.MAX_VALUE);
+
+        assertThat(PageCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void cursorWithoutPositionIsRejectedWherePositionIsNeeded() {
+        String encoded = PageCursor.of(42).encode();
+
+        assertThatThrownBy(() -> PageCursor.decodeWithPosition(encoded))
+                .isInstanceOfSatisfying(ValidationException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "not base64!", "42", "|", "|x", "2024-01-01T10:00|", "2024-13-01T10:00|5",
+            "yesterday|5", "2024-01-01T10:00|99999999999999999999", "2024-01-01T10:00"})
+    void malformedCursorIsBadRequest(String value) {
+        String cursor = value.equals("not base64!")
+                ? value
+                : Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> PageCursor.decode(cursor))
+                .isInstanceOfSatisfying(ValidationException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.request;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.model.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.model.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the items of all listed requests come with one statement, however many requests there are
+@SpringBootTest
+@ActiveProfiles("test")
+class ItemRequestStatementsTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private long publisherId;
+    private long ownerId;
+
+    @BeforeEach
+    void addUsers() {
+        publisherId = addUser();
+        ownerId = addUser();
+    }
+
+    @Test
+    void ownRequestsTakeSameStatementsForOneAndManyRequests() {
+        addRequestWithItems(1);
+        long forOne = countStatements(() -> itemRequestService.getUserRequests(publisherId)).statements;
+
+        for (int i = 0; i < 9; i++) {
+            addRequestWithItems(3);
+        }
+        Counted<List<ItemRequestDto>> forTen = countStatements(() -> itemRequestService.getUserRequests(publisherId));
+
+        assertThat(forTen.result).hasSize(10);
+        assertThat(forTen.result).allSatisfy(request -> assertThat(request.getItems()).isNotEmpty());
+        assertThat(forTen.statements).isEqualTo(forOne);
+    }
+
+    // the feed also shows requests of the other tests, so it is compared before and after nine more are added
+    @Test
+    void otherUsersRequestsTakeSameStatementsForFewAndManyRequests() {
+        addRequestWithItems(1);
+        Counted<Slice<ItemRequestDto>> before =
+                countStatements(() -> itemRequestService.getOtherUsersRequestsPagination(ownerId, 0, 100));
+
+        for (int i = 0; i < 9; i++) {
+            addRequestWithItems(3);
+        }
+        Counted<Slice<ItemRequestDto>> after =
+                countStatements(() -> itemRequestService.getOtherUsersRequestsPagination(ownerId, 0, 100));
+
+        assertThat(after.result.getNumberOfElements()).isEqualTo(before.result.getNumberOfElements() + 9);
+        assertThat(after.statements).isEqualTo(before.statements);
+    }
+
+    // the call runs once before it is counted, so caches warmed by the first call do not skew the comparison
+    private <T> Counted<T> countStatements(Supplier<T> call) {
+        call.get();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        T result = call.get();
+        return new Counted<>(result, statistics.getPrepareStatementCount());
+    }
+
+    private long addUser() {
+        return userService.addUser(UserDto.builder()
+                .name("user")
+                .email(UUID.randomUUID() + "@x.ru")
+                .build()).getId();
+    }
+
+    private void addRequestWithItems(int items) {
+        long requestId = itemRequestService.addNewRequest(publisherId, ItemRequestDto.builder()
+                .description("need a tool")
+                .build()).getId();
+        for (int i = 0; i < items; i++) {
+            itemService.addItem(ownerId, ItemDto.builder()
+                    .name("tool")
+                    .description("tool for request " + requestId)
+                    .available(true)
+                    .requestId(requestId)
+                    .build());
+        }
+    }
+
+    private static class Counted<T> {
+        private final T result;
+        private final long statements;
+
+        private Counted(T result, long statements) {
+            this.result = result;
+            this.statements = statements;
+        }
+    }
+}
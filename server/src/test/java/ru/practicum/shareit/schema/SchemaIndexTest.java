@@ -0,0 +1,126 @@
+package ru.practicum.shareit.schema;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the query shapes of the repository hot paths must be planned on the "indexes, v1" block of schema.sql
+@SpringBootTest
+@ActiveProfiles("test")
+class SchemaIndexTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // with empty tables every index costs the same and H2 takes the ones it creates for foreign keys
+    @BeforeAll
+    static void fillTables(@Autowired JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("insert into users (id, name, email) "
+                + "select x, 'user' || x, 'user' || x || '@x.ru' from system_range(1, 500)");
+        jdbcTemplate.execute("insert into requests (id, publisher, description, creation_date) "
+                + "select x, mod(x, 500) + 1, 'request', dateadd(minute, x, timestamp '2030-01-01 00:00:00') "
+                + "from system_range(1, 2000)");
+        jdbcTemplate.execute("insert into items (id, name, description, owner_id, request) "
+                + "select x, 'item', 'item', mod(x, 500) + 1, case when mod(x, 4) = 0 then mod(x, 2000) + 1 end "
+                + "from system_range(1, 5000)");
+        jdbcTemplate.execute("insert into bookings (id, rental_start, rental_end, booker_id, item_id, status) "
+                + "select x, dateadd(hour, x, timestamp '2030-01-01 00:00:00'), "
+                + "dateadd(hour, x + 1, timestamp '2030-01-01 00:00:00'), mod(x, 500) + 1, mod(x, 5000) + 1, mod(x, 3) "
+                + "from system_range(1, 50000)");
+        jdbcTemplate.execute("insert into comments (id, item_id, author_id, comment_text, creation_date) "
+                + "select x, mod(x, 5000) + 1, mod(x, 500) + 1, 'comment', timestamp '2030-01-01 00:00:00' "
+                + "from system_range(1, 10000)");
+        jdbcTemplate.execute("analyze");
+    }
+
+    @AfterAll
+    static void emptyTables(@Autowired JdbcTemplate jdbcTemplate) {
+        for (String table : List.of("comments", "bookings", "items", "requests", "users")) {
+            jdbcTemplate.execute("delete from " + table);
+        }
+    }
+
+    // the shapes the repositories send, with literals in place of their parameters
+    static Stream<Arguments> hotQueries() {
+        return Stream.of(
+                Arguments.of("future bookings of a booker, newest first",
+                        "select b.* from bookings b where b.booker_id = 1 and b.rental_start > timestamp '2030-06-01 00:00:00' "
+                                + "order by b.rental_start desc, b.id desc",
+                        "bookings_booker_start_idx"),
+                Arguments.of("future bookings of owner's items",
+                        "select b.* from bookings b join items i on b.item_id = i.id where i.owner_id = 1 "
+                                + "and b.rental_start > timestamp '2030-06-01 00:00:00' "
+                                + "order by b.rental_start desc, b.id desc",
+                        "bookings_item_start_idx"),
+                Arguments.of("last booking of an item",
+                        "select b.* from bookings b where b.item_id = 1 and b.rental_start < timestamp '2030-06-01 00:00:00' "
+                                + "order by b.rental_start desc limit 1",
+                        "bookings_item_start_idx"),
+                Arguments.of("has the booker rented the item",
+                        "select b.id from bookings b where b.booker_id = 1 and b.item_id = 1 and b.status = 1 "
+                                + "and b.rental_start < timestamp '2030-06-01 00:00:00' limit 1",
+                        "bookings_booker_item_idx"),
+                Arguments.of("owner's items, keyset page",
+                        "select i.* from items i where i.owner_id = 1 and i.id > 10 order by i.id limit 20",
+                        "items_owner_idx"),
+                Arguments.of("items created in answer to requests",
+                        "select i.* from items i where i.request in (1, 2, 3) order by i.id",
+                        "items_request_idx"),
+                Arguments.of("comments of an author",
+                        "select c.* from comments c where c.author_id = 1",
+                        "comments_author_idx"),
+                Arguments.of("other users' requests, keyset page",
+                        "select r.* from requests r where r.publisher <> 1 "
+                                + "and (r.creation_date < timestamp '2030-01-01 12:00:00' "
+                                + "or (r.creation_date = timestamp '2030-01-01 12:00:00' and r.id < 700)) "
+                                + "order by r.creation_date desc, r.id desc limit 20",
+                        "requests_created_idx"));
+    }
+
+    // H2 backs every foreign key with an index of exactly its columns. For a lookup by that column alone it costs the
+    // same as comments_item_idx or requests_publisher_created_idx and H2 takes it, PostgreSQL has no such index
+    static Stream<Arguments> foreignKeyLookups() {
+        return Stream.of(
+                Arguments.of("comments of listed items",
+                        "select c.* from comments c where c.item_id in (1, 2, 3) order by c.id desc",
+                        "comments_item_idx"),
+                Arguments.of("requests of one publisher",
+                        "select r.* from requests r where r.publisher = 1",
+                        "requests_publisher_created_idx"),
+                Arguments.of("all bookings of a booker",
+                        "select b.* from bookings b where b.booker_id = 1 order by b.rental_start desc, b.id desc",
+                        "bookings_booker_start_idx"),
+                Arguments.of("all items of an owner",
+                        "select i.* from items i where i.owner_id = 1 order by i.id",
+                        "items_owner_idx"));
+    }
+
+    @ParameterizedTest(name = "{0} uses {2}")
+    @MethodSource("hotQueries")
+    void hotQueryUsesIndex(String description, String query, String index) {
+        assertThat(explain(query)).containsPattern("/\\* public\\." + index + "[: ]");
+    }
+
+    @ParameterizedTest(name = "{0} is looked up by index, {2} on PostgreSQL")
+    @MethodSource("foreignKeyLookups")
+    void foreignKeyLookupUsesIndex(String description, String query, String index) {
+        assertThat(explain(query)).doesNotContain("tablescan");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from information_schema.indexes "
+                + "where lower(index_name) = ?", Integer.class, index)).isPositive();
+    }
+
+    private String explain(String query) {
+        return jdbcTemplate.queryForObject("explain " + query, String.class).toLowerCase(Locale.ROOT);
+    }
+}
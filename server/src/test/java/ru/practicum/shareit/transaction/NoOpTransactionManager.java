@@ -0,0 +1,40 @@
+package ru.practicum.shareit.transaction;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// drives transaction synchronizations without a database, including suspension for REQUIRES_NEW
+public class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+    @Override
+    protected Object doGetTransaction() {
+        return new Object[]{TransactionSynchronizationManager.isActualTransactionActive()};
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return (Boolean) ((Object[]) transaction)[0];
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+    }
+
+    @Override
+    protected Object doSuspend(Object transaction) {
+        return transaction;
+    }
+
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+    }
+}
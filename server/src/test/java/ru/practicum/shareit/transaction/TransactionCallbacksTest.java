@@ -0,0 +1,91 @@
+package ru.practicum.shareit.transaction;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionCallbacksTest {
+    private final NoOpTransactionManager transactionManager = new NoOpTransactionManager();
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+    @Test
+    void undoActionsRunInReverseOrderOnRollback() {
+        List<String> undone = new ArrayList<>();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            TransactionCallbacks.afterRollback(() -> undone.add("first"));
+            TransactionCallbacks.afterRollback(() -> undone.add("second"));
+            TransactionCallbacks.afterRollback(() -> undone.add("third"));
+            status.setRollbackOnly();
+        });
+
+        assertThat(undone).containsExactly("third", "second", "first");
+    }
+
+    @Test
+    void undoActionsDoNotRunOnCommit() {
+        List<String> undone = new ArrayList<>();
+        List<String> committed = new ArrayList<>();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            TransactionCallbacks.afterRollback(() -> undone.add("undo"));
+            TransactionCallbacks.afterCommit(() -> committed.add("commit"));
+        });
+
+        assertThat(undone).isEmpty();
+        assertThat(committed).containsExactly("commit");
+    }
+
+    @Test
+    void secondChangeToTheSameValueRestoresStateBeforeTransaction() {
+        String[] value = {"before"};
+
+        transactionTemplate.executeWithoutResult(status -> {
+            set(value, "changed once");
+            set(value, "changed twice");
+            status.setRollbackOnly();
+        });
+
+        assertThat(value[0]).isEqualTo("before");
+    }
+
+    @Test
+    void innerTransactionKeepsItsOwnUndoActions() {
+        List<String> undone = new ArrayList<>();
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            TransactionCallbacks.afterRollback(() -> undone.add("outer"));
+            requiresNew.executeWithoutResult(inner -> {
+                TransactionCallbacks.afterRollback(() -> undone.add("inner"));
+                inner.setRollbackOnly();
+            });
+            assertThat(undone).containsExactly("inner");
+        });
+
+        assertThat(undone).containsExactly("inner");
+    }
+
+    @Test
+    void actionsWithoutTransactionRunRightAwayExceptUndo() {
+        List<String> run = new ArrayList<>();
+
+        TransactionCallbacks.afterRollback(() -> run.add("undo"));
+        TransactionCallbacks.afterCommit(() -> run.add("commit"));
+        TransactionCallbacks.afterCompletion(() -> run.add("completion"));
+
+        assertThat(run).containsExactly("commit", "completion");
+    }
+
+    private void set(String[] value, String newValue) {
+        String previous = value[0];
+        value[0] = newValue;
+        TransactionCallbacks.afterRollback(() -> value[0] = previous);
+    }
+}